@@ -0,0 +1,45 @@
+package it.unicam.cs.asdl2122.mp1;
+
+/**
+ * Ascoltatore delle operazioni eseguite da {@link LinkedListDisjointSets}.
+ * Tutti i metodi hanno un'implementazione vuota di default; l'ascoltatore
+ * {@link #NONE}, usato quando non ne viene impostato nessuno, non fa niente e
+ * le sue chiamate vengono eliminate dal compilatore JIT, per cui la raccolta
+ * di metriche disattivata non ha costi apprezzabili.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub.
+ */
+public interface DisjointSetsListener {
+
+    /**
+     * Ascoltatore che non fa niente, usato quando le metriche sono disattivate.
+     */
+    DisjointSetsListener NONE = new DisjointSetsListener() {
+    };
+
+    /**
+     * Chiamato dopo ogni makeSet eseguito con successo.
+     */
+    default void makeSetPerformed() {
+    }
+
+    /**
+     * Chiamato dopo ogni chiamata del metodo pubblico findSet eseguita con
+     * successo; le operazioni interne (union, enumerazioni) non lo notificano.
+     * Nella rappresentazione con liste concatenate il cammino fino al
+     * rappresentante è sempre lungo 1.
+     */
+    default void findSetPerformed() {
+    }
+
+    /**
+     * Chiamato dopo ogni union che ha effettivamente unito due insiemi.
+     *
+     * @param rewriteLength
+     *                          numero di elementi a cui è stato riscritto il
+     *                          puntatore al rappresentante, cioè la cardinalità
+     *                          dell'insieme più piccolo
+     */
+    default void unionPerformed(int rewriteLength) {
+    }
+}
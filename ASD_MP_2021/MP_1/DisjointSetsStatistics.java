@@ -0,0 +1,118 @@
+package it.unicam.cs.asdl2122.mp1;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Ascoltatore che raccoglie le metriche di una o più istanze di
+ * {@link LinkedListDisjointSets}: numero di makeSet, findSet e union e
+ * istogramma delle lunghezze delle riscritture fatte dalle union. Serve a
+ * verificare che l'euristica dell'unione pesata funzioni: ogni elemento viene
+ * riscritto al più O(log n) volte.
+ *
+ * I contatori sono thread-safe e possono essere letti tramite JMX registrando
+ * l'oggetto con {@link #register(String)}.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub.
+ */
+public class DisjointSetsStatistics implements DisjointSetsListener, DisjointSetsStatisticsMBean {
+
+    //Numero di posizioni dell'istogramma (potenze di due fino a 2^31).
+    public static final int HISTOGRAM_SIZE = 32;
+
+    private final LongAdder makeSets = new LongAdder();
+    private final LongAdder finds = new LongAdder();
+    private final LongAdder unions = new LongAdder();
+    private final LongAdder totalRewrites = new LongAdder();
+    private final AtomicInteger maxRewriteLength = new AtomicInteger();
+    private final AtomicLongArray rewriteLengths = new AtomicLongArray(HISTOGRAM_SIZE);
+
+    @Override
+    public void makeSetPerformed() {
+        makeSets.increment();
+    }
+
+    @Override
+    public void findSetPerformed() {
+        finds.increment();
+    }
+
+    @Override
+    public void unionPerformed(int rewriteLength) {
+        unions.increment();
+        totalRewrites.add(rewriteLength);
+        //Posizione: logaritmo in base due arrotondato per eccesso.
+        int posizione = rewriteLength <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(rewriteLength - 1);
+        rewriteLengths.incrementAndGet(Math.min(posizione, HISTOGRAM_SIZE - 1));
+        if (rewriteLength > maxRewriteLength.get()) {
+            maxRewriteLength.accumulateAndGet(rewriteLength, Math::max);
+        }
+    }
+
+    @Override
+    public long getMakeSetCount() {
+        return makeSets.sum();
+    }
+
+    @Override
+    public long getFindSetCount() {
+        return finds.sum();
+    }
+
+    @Override
+    public long getUnionCount() {
+        return unions.sum();
+    }
+
+    @Override
+    public long getTotalRewrites() {
+        return totalRewrites.sum();
+    }
+
+    @Override
+    public int getMaxRewriteLength() {
+        return maxRewriteLength.get();
+    }
+
+    @Override
+    public long[] getRewriteLengthHistogram() {
+        long[] istogramma = new long[HISTOGRAM_SIZE];
+        for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+            istogramma[i] = rewriteLengths.get(i);
+        }
+        return istogramma;
+    }
+
+    @Override
+    public void reset() {
+        makeSets.reset();
+        finds.reset();
+        unions.reset();
+        totalRewrites.reset();
+        maxRewriteLength.set(0);
+        for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+            rewriteLengths.set(i, 0);
+        }
+    }
+
+    /**
+     * Registra queste metriche nel server JMX della piattaforma.
+     *
+     * @param name
+     *                 il nome JMX, ad esempio
+     *                 {@code "it.unicam.cs.asdl2122.mp1:type=DisjointSets,name=liste"}
+     * @return il nome con cui l'oggetto è stato registrato
+     * @throws JMException
+     *                         se il nome non è valido o è già registrato
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName nome = new ObjectName(name);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, nome);
+        return nome;
+    }
+}
@@ -0,0 +1,48 @@
+package it.unicam.cs.asdl2122.mp1;
+
+/**
+ * Interfaccia JMX delle metriche raccolte da {@link DisjointSetsStatistics}.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub.
+ */
+public interface DisjointSetsStatisticsMBean {
+
+    /**
+     * @return il numero di makeSet eseguiti
+     */
+    long getMakeSetCount();
+
+    /**
+     * @return il numero di findSet eseguiti
+     */
+    long getFindSetCount();
+
+    /**
+     * @return il numero di union che hanno unito due insiemi
+     */
+    long getUnionCount();
+
+    /**
+     * @return il numero totale di puntatori al rappresentante riscritti dalle
+     *         union
+     */
+    long getTotalRewrites();
+
+    /**
+     * @return la lunghezza massima di una riscrittura eseguita da una union
+     */
+    int getMaxRewriteLength();
+
+    /**
+     * @return l'istogramma delle lunghezze delle riscritture per potenze di
+     *         due: la posizione i contiene il numero di union che hanno
+     *         riscritto tra 2^(i-1) (escluso) e 2^i elementi, la posizione 0
+     *         quelle che ne hanno riscritto uno solo
+     */
+    long[] getRewriteLengthHistogram();
+
+    /**
+     * Azzera tutte le metriche.
+     */
+    void reset();
+}
@@ -0,0 +1,87 @@
+package it.unicam.cs.asdl2122.mp1;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Codifica binaria degli elementi di un multiinsieme, usata da
+ * {@link MultisetWriter} e {@link MappedMultisetReader}. Ogni elemento viene
+ * scritto come una sequenza di byte preceduta dalla sua lunghezza, per cui la
+ * codifica non deve contenere la propria lunghezza. Due elementi uguali
+ * (equals) devono avere la stessa codifica, perché il lettore cerca gli
+ * elementi confrontando direttamente i byte.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <E>
+ *                il tipo degli elementi
+ */
+public interface ElementCodec<E> {
+
+    /**
+     * Codifica per gli Integer: 4 byte big-endian.
+     */
+    ElementCodec<Integer> INTEGER = new ElementCodec<Integer>() {
+        @Override
+        public byte[] encode(Integer element) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(element).array();
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer, int length) {
+            return buffer.getInt();
+        }
+    };
+
+    /**
+     * Codifica per i Long: 8 byte big-endian.
+     */
+    ElementCodec<Long> LONG = new ElementCodec<Long>() {
+        @Override
+        public byte[] encode(Long element) {
+            return ByteBuffer.allocate(Long.BYTES).putLong(element).array();
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer, int length) {
+            return buffer.getLong();
+        }
+    };
+
+    /**
+     * Codifica per le String: i byte UTF-8 della stringa.
+     */
+    ElementCodec<String> STRING = new ElementCodec<String>() {
+        @Override
+        public byte[] encode(String element) {
+            return element.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer, int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * @param element
+     *                    un elemento, non nullo
+     * @return la codifica dell'elemento
+     */
+    byte[] encode(E element);
+
+    /**
+     * Legge un elemento dalla posizione corrente del buffer, avanzandola di
+     * length byte.
+     *
+     * @param buffer
+     *                   il buffer da cui leggere
+     * @param length
+     *                   la lunghezza della codifica
+     * @return l'elemento decodificato
+     */
+    E decode(ByteBuffer buffer, int length);
+}
@@ -0,0 +1,293 @@
+package it.unicam.cs.asdl2122.mp1;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+
+/**
+ * Fotografia immutabile di un multiinsieme, da usare ad esempio come chiave di
+ * una mappa. Gli elementi distinti e le loro occorrenze sono congelati in due
+ * array ordinati per hashCode dell'elemento; numero totale di occorrenze e
+ * hashCode sono calcolati una volta sola alla creazione.
+ *
+ * count costa una ricerca binaria sugli hashCode. equals controlla prima
+ * dimensione e hashCode, che quasi sempre bastano a distinguere due
+ * multiinsiemi diversi, e solo dopo confronta gli array. Un ImmutableMultiset
+ * è uguale a un {@link MyMultiset} con gli stessi elementi e le stesse
+ * occorrenze (e viceversa) e ha lo stesso hashCode. Come in MyMultiset, un
+ * elemento con zero occorrenze impostato con setCount fa parte degli elementi.
+ *
+ * I metodi che modificano il multiinsieme lanciano
+ * {@link UnsupportedOperationException}.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <E>
+ *                il tipo degli elementi del multiinsieme
+ */
+public final class ImmutableMultiset<E> implements Multiset<E> {
+
+    //Elementi distinti, ordinati per hashCode, con i loro hashCode e occorrenze.
+    private final Object[] elements;
+    private final int[] hashes;
+    private final int[] counts;
+
+    //Numero totale di occorrenze e hashCode del multiinsieme.
+    private final int size;
+    private final int hash;
+
+    /*
+     * Crea la fotografia a partire dalle coppie (elemento, occorrenze) di una
+     * mappa, che non viene modificata.
+     */
+    ImmutableMultiset(Map<E, Integer> map) {
+        int n = map.size();
+        Object[] elementi = new Object[n];
+        int[] occorrenze = new int[n];
+        //Ordino le posizioni per hashCode codificando (hash, posizione) in un long.
+        long[] chiavi = new long[n];
+        int k = 0;
+        for (Map.Entry<E, Integer> entry : map.entrySet()) {
+            elementi[k] = entry.getKey();
+            occorrenze[k] = entry.getValue();
+            chiavi[k] = (long) entry.getKey().hashCode() << 32 | k;
+            k++;
+        }
+        Arrays.sort(chiavi);
+        this.elements = new Object[n];
+        this.hashes = new int[n];
+        this.counts = new int[n];
+        int totale = 0;
+        int h = 0;
+        for (int i = 0; i < n; i++) {
+            int posizione = (int) chiavi[i];
+            elements[i] = elementi[posizione];
+            hashes[i] = (int) (chiavi[i] >> 32);
+            counts[i] = occorrenze[posizione];
+            totale += counts[i];
+            h += hashes[i] ^ counts[i];
+        }
+        this.size = totale;
+        this.hash = h;
+    }
+
+    /**
+     * Crea la fotografia di un multiinsieme qualsiasi.
+     *
+     * @param multiset
+     *                     il multiinsieme da copiare
+     * @param <E>
+     *                     il tipo degli elementi
+     * @return la fotografia, o il multiinsieme stesso se è già immutabile
+     * @throws NullPointerException
+     *                                  se il multiinsieme è nullo
+     */
+    public static <E> ImmutableMultiset<E> copyOf(Multiset<E> multiset) {
+        //Controllo se il multiinsieme è nullo.
+        if (multiset == null) {
+            throw new NullPointerException("Il multiinsieme passato è nullo");
+        }
+        if (multiset instanceof ImmutableMultiset) {
+            return (ImmutableMultiset<E>) multiset;
+        }
+        if (multiset instanceof MyMultiset) {
+            return ((MyMultiset<E>) multiset).snapshot();
+        }
+        Map<E, Integer> mappa = new java.util.HashMap<>();
+        for (E element : multiset.elementSet()) {
+            mappa.put(element, multiset.count(element));
+        }
+        return new ImmutableMultiset<>(mappa);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int count(Object element) {
+        //Controllo se element sia nullo, in caso lancio l'eccezione.
+        if (element == null) {
+            throw new NullPointerException("L'oggetto 'element' passato è nullo");
+        }
+        int i = indexOf(element);
+        return i < 0 ? 0 : counts[i];
+    }
+
+    @Override
+    public int add(E element, int occurrences) {
+        throw new UnsupportedOperationException("Il multiinsieme è immutabile.");
+    }
+
+    @Override
+    public void add(E element) {
+        throw new UnsupportedOperationException("Il multiinsieme è immutabile.");
+    }
+
+    @Override
+    public int remove(Object element, int occurrences) {
+        throw new UnsupportedOperationException("Il multiinsieme è immutabile.");
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        throw new UnsupportedOperationException("Il multiinsieme è immutabile.");
+    }
+
+    @Override
+    public int setCount(E element, int count) {
+        throw new UnsupportedOperationException("Il multiinsieme è immutabile.");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<E> elementSet() {
+        Set<E> elementi = new HashSet<>(Math.max(16, (int) (elements.length / 0.75f) + 1));
+        for (Object element : elements) {
+            elementi.add((E) element);
+        }
+        return elementi;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            //Posizione dell'elemento corrente e occorrenze già restituite.
+            private int posizione = 0;
+            private int restituite = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (posizione < elements.length && restituite == counts[posizione]) {
+                    posizione++;
+                    restituite = 0;
+                }
+                return posizione < elements.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("Non ci sono elementi. ");
+                }
+                restituite++;
+                return (E) elements[posizione];
+            }
+        };
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        //Controllo se element sia nullo.
+        if (element == null) {
+            throw new NullPointerException("L'oggetto 'element' passato è nullo");
+        }
+        return indexOf(element) >= 0;
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Il multiinsieme è immutabile.");
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return il numero di elementi distinti
+     */
+    public int distinctCount() {
+        return elements.length;
+    }
+
+    /*
+     * Uguale a un altro ImmutableMultiset o a un MyMultiset con gli stessi
+     * elementi e le stesse occorrenze. Dimensione e hashCode vengono
+     * confrontati per primi.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof MyMultiset) {
+            return obj.equals(this);
+        }
+        if (!(obj instanceof ImmutableMultiset)) {
+            return false;
+        }
+        ImmutableMultiset<?> other = (ImmutableMultiset<?>) obj;
+        if (other.size != size || other.hash != hash || other.elements.length != elements.length
+                || !Arrays.equals(other.hashes, hashes)) {
+            return false;
+        }
+        //Gli hashCode coincidono posizione per posizione: confronto gli elementi nei gruppi con lo stesso hashCode.
+        int inizio = 0;
+        while (inizio < elements.length) {
+            int fine = inizio + 1;
+            while (fine < elements.length && hashes[fine] == hashes[inizio]) {
+                fine++;
+            }
+            for (int i = inizio; i < fine; i++) {
+                int j = inizio;
+                while (j < fine && !elements[i].equals(other.elements[j])) {
+                    j++;
+                }
+                if (j == fine || counts[i] != other.counts[j]) {
+                    return false;
+                }
+            }
+            inizio = fine;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /*
+     * Confronto con le coppie (elemento, occorrenze) di una mappa, con le
+     * stesse dimensione e hashCode già controllati dal chiamante.
+     */
+    boolean sameEntries(Map<?, Integer> map) {
+        if (map.size() != elements.length) {
+            return false;
+        }
+        for (int i = 0; i < elements.length; i++) {
+            Integer occorrenze = map.get(elements[i]);
+            if (occorrenze == null || occorrenze != counts[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Metodo privato: posizione dell'elemento, -1 se non c'è.
+    private int indexOf(Object element) {
+        int h = element.hashCode();
+        int i = Arrays.binarySearch(hashes, h);
+        if (i < 0) {
+            return -1;
+        }
+        //Torno al primo elemento con lo stesso hashCode e scorro il gruppo.
+        while (i > 0 && hashes[i - 1] == h) {
+            i--;
+        }
+        for (; i < elements.length && hashes[i] == h; i++) {
+            if (elements[i].equals(element)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -21,6 +21,10 @@ public class LinkedListDisjointSets implements DisjointSets {
     */
 
     private Set<DisjointSetElement> rapresents;
+
+    //Ascoltatore delle operazioni (metriche), di default quello che non fa niente.
+    private DisjointSetsListener listener = DisjointSetsListener.NONE;
+
     /**
      * Crea una collezione vuota di insiemi disgiunti.
      */
@@ -29,6 +33,18 @@ public class LinkedListDisjointSets implements DisjointSets {
         this.rapresents = new HashSet<>();
     }
 
+    /**
+     * Imposta l'ascoltatore a cui notificare makeSet, findSet e union (con il
+     * numero di elementi a cui è stato riscritto il rappresentante), ad
+     * esempio un {@link DisjointSetsStatistics}.
+     *
+     * @param listener
+     *                     l'ascoltatore, null per disattivare le notifiche
+     */
+    public void setListener(DisjointSetsListener listener) {
+        this.listener = listener == null ? DisjointSetsListener.NONE : listener;
+    }
+
     /*
      * Nella rappresentazione con liste concatenate un elemento è presente in
      * qualche insieme disgiunto se il puntatore al suo elemento rappresentante
@@ -58,6 +74,7 @@ public class LinkedListDisjointSets implements DisjointSets {
         e.setRef1(e); //ricorsione--> setto me stesso come rappresentante.
         e.setNumber(1); //Insieme composto da 1.
         rapresents.add(e); //Aggiungo 'e' tramite il metodo add.
+        listener.makeSetPerformed();
     }
 
     /*
@@ -73,6 +90,7 @@ public class LinkedListDisjointSets implements DisjointSets {
         //Controllo se la lista contenga già l'elemento 'e' passato.
         if(!rapresents.contains(e.getRef1()))
             throw new IllegalArgumentException("L'elemento 'e' non è presente");
+        listener.findSetPerformed();
         //Ritorno il rappresentante tramite il getRef1. (ogni elemento all'interno dell'insieme, conosce il suo rappresentante)
         return e.getRef1();
     }
@@ -133,6 +151,8 @@ public class LinkedListDisjointSets implements DisjointSets {
         current.setRef1(nuovoR);
         current.setNumber(getE1+getE2);
         rapresents.remove(vecchioR);
+        //Gli elementi riscritti sono quelli del vecchio insieme (il più piccolo).
+        listener.unionPerformed(Math.min(getE1, getE2));
     }
 
     @Override
@@ -0,0 +1,299 @@
+package it.unicam.cs.asdl2122.mp1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.ObjIntConsumer;
+
+
+/**
+ * Lettore di un multiinsieme scritto da {@link MultisetWriter}. Il file viene
+ * mappato in memoria (solo lettura) e può essere usato in due modi:
+ * <ul>
+ * <li>scorrendo tutte le voci con {@link #forEachEntry(ObjIntConsumer)}, ad
+ * esempio per ricostruire in blocco la tabella delle occorrenze di un
+ * {@link MyMultiset} (vedi {@link MyMultiset#readFrom(Path, ElementCodec)});</li>
+ * <li>chiedendo direttamente {@link #count(Object)}, senza ricostruire il
+ * multiinsieme: alla prima richiesta viene costruito un indice (tabella hash
+ * ad indirizzamento aperto di posizioni nel file, 4 byte per posizione) e la
+ * ricerca confronta i byte della codifica dell'elemento con quelli del file,
+ * senza decodificare nessun elemento.</li>
+ * </ul>
+ * Dopo l'apertura le letture sono thread-safe. Il file non può superare
+ * {@link Integer#MAX_VALUE} byte, il limite di un singolo
+ * {@link MappedByteBuffer}. La mappatura viene rilasciata dalla JVM quando il
+ * lettore non è più raggiungibile, anche dopo {@link #close()}.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <E>
+ *                il tipo degli elementi
+ */
+public class MappedMultisetReader<E> implements Closeable {
+
+    //Posizione della prima voce, dopo magic e versione.
+    private static final int HEADER_SIZE = 5;
+
+    //Il file mappato, il suo canale e la codifica degli elementi.
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final ElementCodec<E> codec;
+
+    //Numero di voci, letto dalla chiusura del file.
+    private final int entries;
+
+    //Fine delle voci (posizione del varint 0 di chiusura).
+    private final int end;
+
+    //Indice: posizione + 1 di ogni voce, 0 se la cella è vuota; null finché non serve.
+    private volatile int[] index;
+
+    //Occorrenze totali, calcolate con l'indice.
+    private long size;
+
+    /**
+     * Apre e mappa il file, controllandone intestazione e chiusura.
+     *
+     * @param file
+     *                  il file da leggere
+     * @param codec
+     *                  la codifica degli elementi, la stessa usata per scrivere
+     * @throws NullPointerException
+     *                                  se almeno uno dei parametri è nullo
+     * @throws IOException
+     *                                  se il file non può essere letto, è
+     *                                  troppo grande o non è nel formato atteso
+     */
+    public MappedMultisetReader(Path file, ElementCodec<E> codec) throws IOException {
+        //Controllo se almeno uno dei parametri è nullo.
+        if (file == null || codec == null) {
+            throw new NullPointerException("Almeno uno dei parametri è nullo");
+        }
+        this.codec = codec;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long lunghezza = channel.size();
+            if (lunghezza > Integer.MAX_VALUE) {
+                throw new IOException("Il file è troppo grande per essere mappato.");
+            }
+            if (lunghezza < HEADER_SIZE + 1 + Long.BYTES) {
+                throw new IOException("Il file è troppo corto.");
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, lunghezza);
+            if (buffer.getInt(0) != MultisetWriter.MAGIC || buffer.get(4) != MultisetWriter.VERSION) {
+                throw new IOException("Il file non è nel formato atteso.");
+            }
+            long voci = buffer.getLong((int) lunghezza - Long.BYTES);
+            this.end = (int) lunghezza - Long.BYTES - 1;
+            //Ogni voce occupa almeno 2 byte (lunghezza e occorrenze), per cui il
+            //numero di voci non può superare la metà dello spazio delle voci.
+            if (voci < 0 || voci > (end - HEADER_SIZE) / 2 || buffer.get(end) != 0) {
+                throw new IOException("Il file non è nel formato atteso.");
+            }
+            this.entries = (int) voci;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return il numero di elementi distinti nel file
+     */
+    public int distinctCount() {
+        return entries;
+    }
+
+    /**
+     * @return il numero totale di occorrenze nel file
+     * @throws IOException
+     *                         se il contenuto del file non è valido
+     */
+    public long size() throws IOException {
+        index();
+        return size;
+    }
+
+    /**
+     * Restituisce il numero di occorrenze di un elemento leggendolo dal file.
+     *
+     * @param element
+     *                    l'elemento
+     * @return il numero di occorrenze, 0 se l'elemento non c'è o non è del tipo
+     *         gestito dalla codifica
+     * @throws NullPointerException
+     *                                  se l'elemento è nullo
+     * @throws IOException
+     *                                  se il contenuto del file non è valido
+     */
+    @SuppressWarnings("unchecked")
+    public int count(Object element) throws IOException {
+        //Controllo se element sia nullo.
+        if (element == null) {
+            throw new NullPointerException("L'oggetto 'element' passato è nullo");
+        }
+        byte[] codifica;
+        try {
+            codifica = codec.encode((E) element);
+        } catch (ClassCastException e) {
+            return 0;
+        }
+        int[] tabella = index();
+        int maschera = tabella.length - 1;
+        for (int cella = hash(codifica) & maschera; tabella[cella] != 0; cella = (cella + 1) & maschera) {
+            int[] posizione = {tabella[cella] - 1};
+            int lunghezza = readVarint(posizione) - 1;
+            if (lunghezza == codifica.length && sameBytes(posizione[0], codifica)) {
+                posizione[0] += lunghezza;
+                return readVarint(posizione);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Decodifica in ordine tutte le voci del file, passando all'azione ogni
+     * elemento con il suo numero di occorrenze.
+     *
+     * @param action
+     *                   l'azione da eseguire per ogni voce
+     * @throws NullPointerException
+     *                                  se l'azione è nulla
+     * @throws IOException
+     *                                  se il contenuto del file non è valido
+     */
+    public void forEachEntry(ObjIntConsumer<? super E> action) throws IOException {
+        //Controllo se l'azione è nulla.
+        if (action == null) {
+            throw new NullPointerException("L'azione è nulla");
+        }
+        ByteBuffer lettore = buffer.duplicate();
+        int[] posizione = {HEADER_SIZE};
+        for (int k = 0; k < entries; k++) {
+            int lunghezza = readVarint(posizione) - 1;
+            checkEntry(posizione[0], lunghezza);
+            lettore.position(posizione[0]);
+            E elemento = codec.decode(lettore, lunghezza);
+            posizione[0] += lunghezza;
+            action.accept(elemento, readVarint(posizione));
+        }
+    }
+
+    /**
+     * Chiude il canale del file.
+     *
+     * @throws IOException
+     *                         se la chiusura fallisce
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    //Metodo privato: indice delle voci, costruito alla prima richiesta.
+    private int[] index() throws IOException {
+        int[] tabella = index;
+        if (tabella == null) {
+            synchronized (this) {
+                tabella = index;
+                if (tabella == null) {
+                    tabella = buildIndex();
+                    index = tabella;
+                }
+            }
+        }
+        return tabella;
+    }
+
+    //Metodo privato: scorre le voci e le inserisce nella tabella hash.
+    private int[] buildIndex() throws IOException {
+        //Capacità: potenza di due almeno doppia delle voci, calcolata in long.
+        long capacitaLunga = Long.highestOneBit(Math.max(2L, entries * 2L - 1)) << 1;
+        if (capacitaLunga > 1 << 30) {
+            throw new IOException("Il file ha troppe voci per essere indicizzato.");
+        }
+        int capacita = (int) capacitaLunga;
+        int[] tabella = new int[capacita];
+        int maschera = capacita - 1;
+        long totale = 0;
+        int[] posizione = {HEADER_SIZE};
+        for (int k = 0; k < entries; k++) {
+            int inizio = posizione[0];
+            int lunghezza = readVarint(posizione) - 1;
+            checkEntry(posizione[0], lunghezza);
+            int cella = hash(posizione[0], lunghezza) & maschera;
+            while (tabella[cella] != 0) {
+                cella = (cella + 1) & maschera;
+            }
+            tabella[cella] = inizio + 1;
+            posizione[0] += lunghezza;
+            totale += readVarint(posizione);
+        }
+        if (posizione[0] != end) {
+            throw new IOException("Il file non è nel formato atteso.");
+        }
+        size = totale;
+        return tabella;
+    }
+
+    //Metodo privato: controlla che una codifica sia dentro le voci.
+    private void checkEntry(int posizione, int lunghezza) throws IOException {
+        if (lunghezza < 0 || posizione + lunghezza > end) {
+            throw new IOException("Il file non è nel formato atteso.");
+        }
+    }
+
+    //Metodo privato: legge un varint dalla posizione data, avanzandola.
+    private int readVarint(int[] posizione) throws IOException {
+        int valore = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (posizione[0] >= end + 1) {
+                throw new IOException("Il file non è nel formato atteso.");
+            }
+            byte b = buffer.get(posizione[0]++);
+            valore |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return valore;
+            }
+        }
+        throw new IOException("Il file non è nel formato atteso.");
+    }
+
+    //Metodo privato: confronta i byte del file dalla posizione data con la codifica.
+    private boolean sameBytes(int posizione, byte[] codifica) {
+        for (int i = 0; i < codifica.length; i++) {
+            if (buffer.get(posizione + i) != codifica[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Metodo privato: hash dei byte del file, uguale a quello della codifica.
+    private int hash(int posizione, int lunghezza) {
+        int h = 1;
+        for (int i = 0; i < lunghezza; i++) {
+            h = 31 * h + buffer.get(posizione + i);
+        }
+        return mix(h);
+    }
+
+    //Metodo privato: hash di una codifica.
+    private static int hash(byte[] codifica) {
+        int h = 1;
+        for (byte b : codifica) {
+            h = 31 * h + b;
+        }
+        return mix(h);
+    }
+
+    //Metodo privato: mescola i bit, per distribuire bene anche codifiche simili.
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
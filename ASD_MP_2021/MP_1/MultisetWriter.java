@@ -0,0 +1,155 @@
+package it.unicam.cs.asdl2122.mp1;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+/**
+ * Scrittore in streaming di un multiinsieme nel formato binario letto da
+ * {@link MappedMultisetReader}: invece di una riga per ogni occorrenza viene
+ * scritta una sola coppia (elemento, numero di occorrenze) per ogni elemento
+ * distinto.
+ *
+ * Formato del file:
+ * <ul>
+ * <li>intestazione: {@link #MAGIC} (4 byte) e {@link #VERSION} (1 byte);</li>
+ * <li>una voce per elemento: lunghezza della codifica più uno (varint), byte
+ * della codifica data da {@link ElementCodec}, numero di occorrenze
+ * (varint);</li>
+ * <li>chiusura: un varint 0 e il numero di voci (8 byte).</li>
+ * </ul>
+ * I varint sono interi senza segno scritti 7 bit alla volta, dal meno
+ * significativo, con il bit più alto acceso in tutti i byte tranne l'ultimo:
+ * un numero di occorrenze minore di 128 occupa un solo byte.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <E>
+ *                il tipo degli elementi
+ */
+public class MultisetWriter<E> implements Closeable {
+
+    //Numero magico all'inizio del file ("MSET").
+    public static final int MAGIC = 0x4D534554;
+
+    //Versione del formato.
+    public static final byte VERSION = 1;
+
+    //Flusso di uscita e codifica degli elementi.
+    private final DataOutputStream out;
+    private final ElementCodec<E> codec;
+
+    //Numero di voci scritte.
+    private long entries;
+
+    //True dopo la scrittura della chiusura.
+    private boolean finished;
+
+    /**
+     * Crea uno scrittore e scrive l'intestazione.
+     *
+     * @param out
+     *                  il flusso su cui scrivere
+     * @param codec
+     *                  la codifica degli elementi
+     * @throws NullPointerException
+     *                                  se almeno uno dei parametri è nullo
+     * @throws IOException
+     *                                  se la scrittura fallisce
+     */
+    public MultisetWriter(OutputStream out, ElementCodec<E> codec) throws IOException {
+        //Controllo se almeno uno dei parametri è nullo.
+        if (out == null || codec == null) {
+            throw new NullPointerException("Almeno uno dei parametri è nullo");
+        }
+        this.out = new DataOutputStream(out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out));
+        this.codec = codec;
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+    }
+
+    /**
+     * Scrive un elemento con il suo numero di occorrenze. Anche gli elementi
+     * con zero occorrenze vengono scritti, come voce con occorrenze 0, perché
+     * un {@link MyMultiset} li conserva (contains restituisce true) e la
+     * rilettura deve restituire un multiset uguale. Il chiamante deve
+     * scrivere ogni elemento al più una volta.
+     *
+     * @param element
+     *                        l'elemento
+     * @param occurrences
+     *                        il numero di occorrenze
+     * @throws NullPointerException
+     *                                      se l'elemento è nullo
+     * @throws IllegalArgumentException
+     *                                      se il numero di occorrenze è
+     *                                      negativo
+     * @throws IllegalStateException
+     *                                      se la scrittura è già stata chiusa
+     * @throws IOException
+     *                                      se la scrittura fallisce
+     */
+    public void write(E element, int occurrences) throws IOException {
+        //Controllo se element sia nullo.
+        if (element == null) {
+            throw new NullPointerException("L'oggetto 'element' passato è nullo");
+        }
+        //Controllo se le occorrenze passate sono negative.
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("Il numero delle occorrenze è negativo");
+        }
+        if (finished) {
+            throw new IllegalStateException("La scrittura è già stata chiusa.");
+        }
+        byte[] codifica = codec.encode(element);
+        writeVarint(out, codifica.length + 1);
+        out.write(codifica);
+        writeVarint(out, occurrences);
+        entries++;
+    }
+
+    /**
+     * Scrive la chiusura del formato e svuota il buffer, senza chiudere il
+     * flusso sottostante. Chiamate successive non hanno effetto.
+     *
+     * @throws IOException
+     *                         se la scrittura fallisce
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        writeVarint(out, 0);
+        out.writeLong(entries);
+        out.flush();
+    }
+
+    /**
+     * Scrive la chiusura del formato, se non è già stata scritta, e chiude il
+     * flusso sottostante.
+     *
+     * @throws IOException
+     *                         se la scrittura o la chiusura falliscono
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    //Metodo di appoggio: scrive un intero senza segno come varint.
+    static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
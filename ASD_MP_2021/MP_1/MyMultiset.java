@@ -1,5 +1,8 @@
 package it.unicam.cs.asdl2122.mp1;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -25,6 +28,10 @@ public class MyMultiset<E> implements Multiset<E> {
     //Contatore che mi servirà per tener conto quante modifiche sono state effettuate.(add, remove, clear ...)
     private int modifiche = 0;
 
+    //Numero totale di occorrenze e hashCode della mappa, aggiornati ad ogni modifica.
+    private int dimensione = 0;
+    private int hash = 0;
+
     //----------------------------------------------------------------------//
     //Classe interna: (Iteratore)
     private class Itr implements Iterator<E> {
@@ -72,17 +79,18 @@ public class MyMultiset<E> implements Multiset<E> {
         map = new HashMap<>();
     }
 
+    /*
+     * Crea un multiset vuoto con la tabella già dimensionata per il numero di
+     * elementi distinti previsto.
+     */
+    MyMultiset(int expectedElements) {
+        map = new HashMap<>(Math.max(16, (int) (expectedElements / 0.75f) + 1));
+    }
+
     @Override
     public int size() {
-        //Contatore impostato a 0.
-        int contatore = 0;
-        //Scorro le chiavi tramite un for-each.
-        for (E key: map.keySet()) {  //keySet --> tutte le chiavi.
-            //Incremento il contatore con tutte le chiavi (così da avere la size, occorrenze).
-            contatore += map.get(key);
-        }
-        //Ritorno la size (contatore).
-        return contatore;
+        //La dimensione viene aggiornata ad ogni modifica, non serve scorrere le chiavi.
+        return dimensione;
     }
 
     @Override
@@ -108,12 +116,12 @@ public class MyMultiset<E> implements Multiset<E> {
         if(map.containsKey(element)){  //Controllo se nella mappa è presente l'elemento.
             if((map.get(element) + occurrences) > 0) {  //Controllo di Integer.Max_Values
                 contatore = map.get(element); //Assegno al contatore le occorrenze dell'elemento prima della modifica.
-                map.put(element, map.get(element) + occurrences);
+                put(element, map.get(element) + occurrences);
                 if ( occurrences > 0 )modifiche++; //E' stata effettuata una modifica.
             }else throw new IllegalArgumentException("Il numero delle occorrenze supera Integer.MAX_VALUES.");
         }else{
             //Se non contiene l'elemento allora aggiungo uno nuovo.
-            map.put(element, occurrences);
+            put(element, occurrences);
             if ( occurrences > 0 )modifiche++;  //E' stata effettuata una modifica.
         }
         return contatore;
@@ -140,11 +148,11 @@ public class MyMultiset<E> implements Multiset<E> {
             occorrenze = map.get(element);
             //Controllo se le occorrenze da eliminare sono maggiori di quelle che già presenti.
             if(occurrences >= map.get(element)){
-                map.remove(element); //Rimuovo del tutto l'elemento.
+                removeKey(element); //Rimuovo del tutto l'elemento.
                 if ( occurrences > 0 )modifiche++;
             }else {
                 try {
-                    map.put((E) element , map.get(element) - occurrences);
+                    put((E) element , map.get(element) - occurrences);
                     if ( occurrences > 0 )modifiche++;
                 }catch (ClassCastException e){  //Gestisco solo questa eccezione specifica.
                     throw new IllegalArgumentException("L'elemento non è valido");
@@ -176,7 +184,7 @@ public class MyMultiset<E> implements Multiset<E> {
         //Creo una variabile contatore--> gli assegno il numero delle occorrenze (di element).
         int contatore = count(element);
         //Uso il metodo put(della mappa).
-        map.put(element, count);
+        put(element, count);
         //Se le occorrenze da aggiungere sono diverse da quelle che già ho, allora ho effettuato una modifica.
         if (count != contatore)modifiche++ ;
         return contatore;
@@ -204,6 +212,58 @@ public class MyMultiset<E> implements Multiset<E> {
         return new Itr(lista);
     }
 
+    /**
+     * Scrive il multiset sul flusso nel formato di {@link MultisetWriter}: una
+     * coppia (elemento, occorrenze) per ogni elemento, senza espandere le
+     * occorrenze. Vengono scritti anche gli elementi presenti con zero
+     * occorrenze, per cui {@link #readFrom(Path, ElementCodec)} restituisce un
+     * multiset uguale (secondo equals, e con gli stessi elementi per
+     * contains) a quello scritto. Il flusso non viene chiuso.
+     *
+     * @param out
+     *                  il flusso su cui scrivere
+     * @param codec
+     *                  la codifica degli elementi
+     * @throws NullPointerException
+     *                                  se almeno uno dei parametri è nullo
+     * @throws IOException
+     *                                  se la scrittura fallisce
+     */
+    public void writeTo(OutputStream out, ElementCodec<E> codec) throws IOException {
+        MultisetWriter<E> writer = new MultisetWriter<>(out, codec);
+        //Scorro le coppie della mappa, compresi gli elementi con zero occorrenze.
+        for (Map.Entry<E, Integer> entry : map.entrySet()) {
+            writer.write(entry.getKey(), entry.getValue());
+        }
+        writer.finish();
+    }
+
+    /**
+     * Legge un multiset scritto con {@link #writeTo(OutputStream, ElementCodec)}.
+     * Il file viene mappato in memoria e la tabella delle occorrenze viene
+     * dimensionata una volta sola e riempita in blocco, senza passare da add.
+     *
+     * @param file
+     *                  il file da leggere
+     * @param codec
+     *                  la codifica degli elementi, la stessa usata per scrivere
+     * @param <E>
+     *                  il tipo degli elementi
+     * @return il multiset letto
+     * @throws NullPointerException
+     *                                  se almeno uno dei parametri è nullo
+     * @throws IOException
+     *                                  se il file non può essere letto o non è
+     *                                  nel formato atteso
+     */
+    public static <E> MyMultiset<E> readFrom(Path file, ElementCodec<E> codec) throws IOException {
+        try (MappedMultisetReader<E> reader = new MappedMultisetReader<>(file, codec)) {
+            MyMultiset<E> multiset = new MyMultiset<>(reader.distinctCount());
+            reader.forEachEntry((elemento, occorrenze) -> multiset.put(elemento, occorrenze));
+            return multiset;
+        }
+    }
+
     @Override
     public boolean contains(Object element) {
         //Controllo se element sia nullo.
@@ -217,6 +277,8 @@ public class MyMultiset<E> implements Multiset<E> {
     public void clear() {
         //Creo una nuova mappa (new HashMap<>())
         map = new HashMap<>();
+        dimensione = 0;
+        hash = 0;
         //E' stata effettuata una modifica quindi incremento le modifiche.
         modifiche++;
     }
@@ -226,6 +288,17 @@ public class MyMultiset<E> implements Multiset<E> {
         return size() == 0;
     }
 
+    /**
+     * Restituisce una fotografia immutabile del multiset, che non cambia con le
+     * modifiche successive. La fotografia è uguale al multiset finché questo
+     * non viene modificato e ne condivide l'hashCode.
+     *
+     * @return la fotografia del multiset
+     */
+    public ImmutableMultiset<E> snapshot() {
+        return new ImmutableMultiset<>(map);
+    }
+
     /*
      * Due multinsiemi sono uguali se e solo se contengono esattamente gli
      * stessi elementi (utilizzando l'equals della classe E) con le stesse
@@ -238,22 +311,22 @@ public class MyMultiset<E> implements Multiset<E> {
         //Controllo se obj sia nullo.
         if(obj == null)
             throw new NullPointerException("L'oggetto 'obj' passato è nullo");
+        if(obj == this)
+            return true;
+        //Una fotografia è uguale al multiset se ha gli stessi elementi con le stesse occorrenze.
+        if(obj instanceof ImmutableMultiset){
+            ImmutableMultiset<?> snapshot = (ImmutableMultiset<?>) obj;
+            //Dimensione e hashCode sono già calcolati: se sono diversi non serve confrontare gli elementi.
+            return dimensione == snapshot.size() && hash == snapshot.hashCode() && snapshot.sameEntries(map);
+        }
         //Controllo se obj sia un instanza di MyMultiset.
         if(!(obj instanceof MyMultiset))
             return false;
-        MyMultiset other = (MyMultiset) obj;
-        //Controllo per prima cosa se le liste sono uguali tramite il Set() (equals).
-        if(elementSet().equals(other.elementSet())){ //le liste sono uguali
-            //Scorro tutte le chiavi tramite un for-each.
-            for(E key : map.keySet()){
-                if(count(key) != other.count(key)){ //Controllo se hanno lo stesso numero di occorrenze.
-                    return false;
-                }
-            }
-            return true;
-        }else{
+        MyMultiset<?> other = (MyMultiset<?>) obj;
+        //Controllo per prima cosa dimensione e hashCode, poi le coppie delle due mappe.
+        if(dimensione != other.dimensione || hash != other.hash)
             return false;
-        }
+        return map.equals(other.map);
     }
 
     /*
@@ -263,7 +336,28 @@ public class MyMultiset<E> implements Multiset<E> {
      */
     @Override
     public int hashCode() {
-        //Richiamo l'hashCode della mappa.
-        return map.hashCode();
+        //Uguale all'hashCode della mappa, ma aggiornato ad ogni modifica invece di essere ricalcolato.
+        return hash;
+    }
+
+    //Metodo privato: imposta le occorrenze di un elemento, aggiornando dimensione e hashCode.
+    private void put(E element, int occorrenze) {
+        Integer vecchie = map.put(element, occorrenze);
+        int h = element.hashCode();
+        if(vecchie != null){
+            dimensione -= vecchie;
+            hash -= h ^ vecchie;
+        }
+        dimensione += occorrenze;
+        hash += h ^ occorrenze;
+    }
+
+    //Metodo privato: rimuove un elemento, aggiornando dimensione e hashCode.
+    private void removeKey(Object element) {
+        Integer vecchie = map.remove(element);
+        if(vecchie != null){
+            dimensione -= vecchie;
+            hash -= element.hashCode() ^ vecchie;
+        }
     }
 }
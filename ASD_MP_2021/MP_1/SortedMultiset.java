@@ -0,0 +1,573 @@
+package it.unicam.cs.asdl2122.mp1;
+
+import java.util.ArrayDeque;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+
+/**
+ * Multiinsieme ordinato di elementi {@link Comparable}, che oltre alle
+ * operazioni di {@link Multiset} risponde a domande sull'ordine delle
+ * occorrenze: quante occorrenze sono minori (o minori o uguali) di un
+ * elemento, quale elemento si trova in una certa posizione dell'ordine di
+ * tutte le occorrenze, quale è il percentile p-esimo e quante occorrenze
+ * cadono in un intervallo.
+ *
+ * Gli elementi distinti sono memorizzati in un albero AVL ordinato secondo
+ * compareTo; ogni nodo contiene il numero di occorrenze del suo elemento e il
+ * totale delle occorrenze del suo sottoalbero. Tutte le operazioni, comprese
+ * rank, select, percentile e range count, costano O(log n) con n numero di
+ * elementi distinti; size costa O(1).
+ *
+ * A differenza di {@link MyMultiset}, un elemento con zero occorrenze non viene
+ * memorizzato, per cui non compare in {@link #elementSet()}. L'iteratore e
+ * elementSet restituiscono gli elementi in ordine crescente. L'hashCode è
+ * calcolato con la stessa formula di MyMultiset, per cui due multiinsiemi con
+ * le stesse occorrenze hanno lo stesso hashCode. Il numero totale di
+ * occorrenze non può superare {@link Integer#MAX_VALUE}.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <E>
+ *                il tipo degli elementi del multiinsieme
+ */
+public class SortedMultiset<E extends Comparable<? super E>> implements Multiset<E> {
+
+    //Nodo dell'albero AVL.
+    private static final class Node<E> {
+        private final E element;
+        private int count;
+        //Occorrenze totali del sottoalbero e altezza del sottoalbero.
+        private int total;
+        private int height;
+        private Node<E> left;
+        private Node<E> right;
+
+        private Node(E element, int count) {
+            this.element = element;
+            this.count = count;
+            this.total = count;
+            this.height = 1;
+        }
+    }
+
+    //Radice dell'albero.
+    private Node<E> root;
+
+    //Numero di elementi distinti.
+    private int distinct;
+
+    //Numero di modifiche, per gli iteratori fail-fast.
+    private int modifiche = 0;
+
+    /**
+     * Crea un multiinsieme ordinato vuoto.
+     */
+    public SortedMultiset() {
+        this.root = null;
+        this.distinct = 0;
+    }
+
+    @Override
+    public int size() {
+        return total(root);
+    }
+
+    @Override
+    public int count(Object element) {
+        //Controllo se element sia nullo, in caso lancio l'eccezione.
+        if (element == null) {
+            throw new NullPointerException("L'oggetto 'element' passato è nullo");
+        }
+        Node<E> nodo = find(element);
+        return nodo == null ? 0 : nodo.count;
+    }
+
+    @Override
+    public int add(E element, int occurrences) {
+        //Controllo se element sia nullo, in caso lancio l'eccezione.
+        if (element == null) {
+            throw new NullPointerException("L'oggetto 'element' passato è nullo");
+        }
+        //Controllo se le occorrenze passate sono negative.
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("Occurrences è negativo.");
+        }
+        int precedenti = count(element);
+        if (occurrences == 0) {
+            return precedenti;
+        }
+        if (size() + occurrences < 0) {
+            throw new IllegalArgumentException("Il numero delle occorrenze supera Integer.MAX_VALUES.");
+        }
+        root = set(root, element, precedenti + occurrences);
+        modifiche++;
+        return precedenti;
+    }
+
+    @Override
+    public void add(E element) {
+        add(element, 1);
+    }
+
+    @Override
+    public int remove(Object element, int occurrences) {
+        //Controllo se element sia nullo.
+        if (element == null) {
+            throw new NullPointerException("L'oggetto 'element' passato è nullo");
+        }
+        //Controllo se le occorrenze passate sono negative.
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("Il numero delle occorrenze è negativo");
+        }
+        Node<E> nodo = find(element);
+        if (nodo == null) {
+            return 0;
+        }
+        int precedenti = nodo.count;
+        if (occurrences > 0) {
+            root = set(root, nodo.element, Math.max(0, precedenti - occurrences));
+            modifiche++;
+        }
+        return precedenti;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        return remove(element, 1) > 0;
+    }
+
+    @Override
+    public int setCount(E element, int count) {
+        //Controllo se element sia nullo, in caso lancio l'eccezione.
+        if (element == null) {
+            throw new NullPointerException("L'elemento 'element' passato è nullo");
+        }
+        //Controllo se count è negativo.
+        if (count < 0) {
+            throw new IllegalArgumentException("Count è negativo");
+        }
+        int precedenti = count(element);
+        if (count != precedenti) {
+            if (size() - precedenti + count < 0) {
+                throw new IllegalArgumentException("Il numero delle occorrenze supera Integer.MAX_VALUES.");
+            }
+            root = set(root, element, count);
+            modifiche++;
+        }
+        return precedenti;
+    }
+
+    /**
+     * @return un nuovo insieme ordinato con gli elementi distinti del
+     *         multiinsieme
+     */
+    @Override
+    public Set<E> elementSet() {
+        Set<E> elementi = new TreeSet<>();
+        Iterator<Node<E>> it = nodes();
+        while (it.hasNext()) {
+            elementi.add(it.next().element);
+        }
+        return elementi;
+    }
+
+    /**
+     * @return un iteratore che restituisce le occorrenze in ordine crescente;
+     *         lancia {@link ConcurrentModificationException} se il
+     *         multiinsieme viene modificato durante l'iterazione
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        //Controllo se element sia nullo.
+        if (element == null) {
+            throw new NullPointerException("L'oggetto 'element' passato è nullo");
+        }
+        return find(element) != null;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        distinct = 0;
+        modifiche++;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * @return il numero di elementi distinti
+     */
+    public int distinctCount() {
+        return distinct;
+    }
+
+    /**
+     * @param element
+     *                    un elemento
+     * @return il numero di occorrenze strettamente minori di element, cioè la
+     *         posizione (da 0) della prima occorrenza di element nell'ordine
+     *         di tutte le occorrenze
+     * @throws NullPointerException
+     *                                  se l'elemento è nullo
+     */
+    public int rank(E element) {
+        //Controllo se element sia nullo.
+        if (element == null) {
+            throw new NullPointerException("L'elemento 'element' passato è nullo");
+        }
+        return countBelow(element, false);
+    }
+
+    /**
+     * @param element
+     *                    un elemento
+     * @return il numero di occorrenze minori o uguali a element
+     * @throws NullPointerException
+     *                                  se l'elemento è nullo
+     */
+    public int countAtMost(E element) {
+        //Controllo se element sia nullo.
+        if (element == null) {
+            throw new NullPointerException("L'elemento 'element' passato è nullo");
+        }
+        return countBelow(element, true);
+    }
+
+    /**
+     * @param from
+     *                 estremo inferiore, compreso
+     * @param to
+     *                 estremo superiore, compreso
+     * @return il numero di occorrenze x con from <= x <= to, 0 se from > to
+     * @throws NullPointerException
+     *                                  se almeno uno dei due estremi è nullo
+     */
+    public int countInRange(E from, E to) {
+        //Controllo se almeno uno degli estremi è nullo.
+        if (from == null || to == null) {
+            throw new NullPointerException("Almeno uno degli estremi è nullo");
+        }
+        if (from.compareTo(to) > 0) {
+            return 0;
+        }
+        return countBelow(to, true) - countBelow(from, false);
+    }
+
+    /**
+     * @param rank
+     *                 una posizione, da 0 a size() - 1
+     * @return l'elemento che occupa la posizione data nell'ordine crescente di
+     *         tutte le occorrenze
+     * @throws IndexOutOfBoundsException
+     *                                       se la posizione non è valida
+     */
+    public E select(int rank) {
+        if (rank < 0 || rank >= size()) {
+            throw new IndexOutOfBoundsException("La posizione passata è fuori dai limiti dell'intervallo.");
+        }
+        Node<E> nodo = root;
+        while (true) {
+            int sinistra = total(nodo.left);
+            if (rank < sinistra) {
+                nodo = nodo.left;
+            } else if (rank < sinistra + nodo.count) {
+                return nodo.element;
+            } else {
+                rank -= sinistra + nodo.count;
+                nodo = nodo.right;
+            }
+        }
+    }
+
+    /**
+     * Percentile con il metodo del rango più vicino: il percentile p-esimo è la
+     * più piccola occorrenza x tale che almeno il p% delle occorrenze sia
+     * minore o uguale a x. Il percentile 0 è il minimo, il 100 il massimo.
+     *
+     * @param p
+     *              il percentile, tra 0 e 100
+     * @return l'elemento corrispondente al percentile
+     * @throws IllegalArgumentException
+     *                                      se p non è tra 0 e 100
+     * @throws NoSuchElementException
+     *                                      se il multiinsieme è vuoto
+     */
+    public E percentile(double p) {
+        if (!(p >= 0 && p <= 100)) {
+            throw new IllegalArgumentException("Il percentile deve essere tra 0 e 100.");
+        }
+        int n = size();
+        if (n == 0) {
+            throw new NoSuchElementException("Il multiinsieme è vuoto.");
+        }
+        int posizione = (int) Math.ceil(p / 100 * n) - 1;
+        return select(Math.max(0, Math.min(n - 1, posizione)));
+    }
+
+    /*
+     * Due multiinsiemi ordinati sono uguali se e solo se contengono gli stessi
+     * elementi con le stesse molteplicità.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof SortedMultiset)) {
+            return false;
+        }
+        SortedMultiset<?> other = (SortedMultiset<?>) obj;
+        if (other.distinct != distinct || other.size() != size()) {
+            return false;
+        }
+        //Le visite in ordine dei due alberi devono coincidere.
+        Iterator<?> altri = other.nodes();
+        Iterator<?> questi = nodes();
+        while (questi.hasNext()) {
+            Node<?> a = (Node<?>) questi.next();
+            Node<?> b = (Node<?>) altri.next();
+            if (a.count != b.count || !a.element.equals(b.element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Stessa formula di MyMultiset (cioè di Map.hashCode): somma degli
+     * hashCode dell'elemento xor il numero di occorrenze.
+     */
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        Iterator<Node<E>> it = nodes();
+        while (it.hasNext()) {
+            Node<E> nodo = it.next();
+            hash += nodo.element.hashCode() ^ nodo.count;
+        }
+        return hash;
+    }
+
+    //Metodo privato: nodo dell'elemento dato, null se non c'è o non è confrontabile.
+    @SuppressWarnings("unchecked")
+    private Node<E> find(Object element) {
+        Node<E> nodo = root;
+        try {
+            E e = (E) element;
+            while (nodo != null) {
+                int c = e.compareTo(nodo.element);
+                if (c == 0) {
+                    return nodo;
+                }
+                nodo = c < 0 ? nodo.left : nodo.right;
+            }
+        } catch (ClassCastException ex) {
+            //Un oggetto di un altro tipo non è mai presente.
+            return null;
+        }
+        return null;
+    }
+
+    //Metodo privato: occorrenze minori di element (o minori o uguali se inclusivo).
+    private int countBelow(E element, boolean inclusivo) {
+        int conteggio = 0;
+        Node<E> nodo = root;
+        while (nodo != null) {
+            int c = element.compareTo(nodo.element);
+            if (c < 0) {
+                nodo = nodo.left;
+            } else if (c == 0) {
+                return conteggio + total(nodo.left) + (inclusivo ? nodo.count : 0);
+            } else {
+                conteggio += total(nodo.left) + nodo.count;
+                nodo = nodo.right;
+            }
+        }
+        return conteggio;
+    }
+
+    //Metodo privato: nodo minimo del sottoalbero.
+    private static <E> Node<E> first(Node<E> nodo) {
+        if (nodo == null) {
+            return null;
+        }
+        while (nodo.left != null) {
+            nodo = nodo.left;
+        }
+        return nodo;
+    }
+
+    /*
+     * Imposta a count le occorrenze di element nel sottoalbero, inserendo o
+     * rimuovendo il nodo se necessario, e restituisce la nuova radice del
+     * sottoalbero ribilanciata.
+     */
+    private Node<E> set(Node<E> nodo, E element, int count) {
+        if (nodo == null) {
+            if (count == 0) {
+                return null;
+            }
+            distinct++;
+            return new Node<>(element, count);
+        }
+        int c = element.compareTo(nodo.element);
+        if (c < 0) {
+            nodo.left = set(nodo.left, element, count);
+        } else if (c > 0) {
+            nodo.right = set(nodo.right, element, count);
+        } else if (count > 0) {
+            nodo.count = count;
+        } else {
+            distinct--;
+            if (nodo.left == null) {
+                return nodo.right;
+            }
+            if (nodo.right == null) {
+                return nodo.left;
+            }
+            //Sostituisco il nodo con il minimo del sottoalbero destro.
+            Node<E> minimo = first(nodo.right);
+            minimo.right = removeFirst(nodo.right);
+            minimo.left = nodo.left;
+            nodo = minimo;
+        }
+        return balance(nodo);
+    }
+
+    //Metodo privato: rimuove il minimo del sottoalbero, restituendo la nuova radice.
+    private Node<E> removeFirst(Node<E> nodo) {
+        if (nodo.left == null) {
+            return nodo.right;
+        }
+        nodo.left = removeFirst(nodo.left);
+        return balance(nodo);
+    }
+
+    //Metodo privato: aggiorna altezza e totale e ripristina il bilanciamento AVL.
+    private Node<E> balance(Node<E> nodo) {
+        update(nodo);
+        int fattore = height(nodo.left) - height(nodo.right);
+        if (fattore > 1) {
+            if (height(nodo.left.left) < height(nodo.left.right)) {
+                nodo.left = rotateLeft(nodo.left);
+            }
+            return rotateRight(nodo);
+        }
+        if (fattore < -1) {
+            if (height(nodo.right.right) < height(nodo.right.left)) {
+                nodo.right = rotateRight(nodo.right);
+            }
+            return rotateLeft(nodo);
+        }
+        return nodo;
+    }
+
+    private Node<E> rotateRight(Node<E> nodo) {
+        Node<E> sinistro = nodo.left;
+        nodo.left = sinistro.right;
+        sinistro.right = nodo;
+        update(nodo);
+        update(sinistro);
+        return sinistro;
+    }
+
+    private Node<E> rotateLeft(Node<E> nodo) {
+        Node<E> destro = nodo.right;
+        nodo.right = destro.left;
+        destro.left = nodo;
+        update(nodo);
+        update(destro);
+        return destro;
+    }
+
+    private static <E> void update(Node<E> nodo) {
+        nodo.height = 1 + Math.max(height(nodo.left), height(nodo.right));
+        nodo.total = nodo.count + total(nodo.left) + total(nodo.right);
+    }
+
+    private static int height(Node<?> nodo) {
+        return nodo == null ? 0 : nodo.height;
+    }
+
+    private static int total(Node<?> nodo) {
+        return nodo == null ? 0 : nodo.total;
+    }
+
+    /*
+     * Visita in ordine dei nodi con una pila esplicita, senza controlli sulle
+     * modifiche: la usano equals e hashCode.
+     */
+    private Iterator<Node<E>> nodes() {
+        return new Iterator<Node<E>>() {
+            private final ArrayDeque<Node<E>> pila = new ArrayDeque<>();
+
+            {
+                push(root);
+            }
+
+            private void push(Node<E> nodo) {
+                while (nodo != null) {
+                    pila.push(nodo);
+                    nodo = nodo.left;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !pila.isEmpty();
+            }
+
+            @Override
+            public Node<E> next() {
+                if (pila.isEmpty()) {
+                    throw new NoSuchElementException("Non ci sono elementi. ");
+                }
+                Node<E> nodo = pila.pop();
+                push(nodo.right);
+                return nodo;
+            }
+        };
+    }
+
+    //Classe interna: iteratore fail-fast sulle occorrenze, in ordine crescente.
+    private class Itr implements Iterator<E> {
+        private final Iterator<Node<E>> nodi = nodes();
+        private final int modificheItr = modifiche;
+        //Nodo corrente e occorrenze ancora da restituire.
+        private Node<E> corrente;
+        private int rimaste;
+
+        @Override
+        public boolean hasNext() {
+            return rimaste > 0 || nodi.hasNext();
+        }
+
+        @Override
+        public E next() {
+            if (modifiche != modificheItr) {
+                throw new ConcurrentModificationException("E' stata effettuata una modifica.");
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException("Non ci sono elementi. ");
+            }
+            if (rimaste == 0) {
+                corrente = nodi.next();
+                rimaste = corrente.count;
+            }
+            rimaste--;
+            return corrente.element;
+        }
+    }
+}
@@ -0,0 +1,820 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.util.*;
+
+
+/**
+ * Classe che implementa un grafo non orientato la cui rappresentazione si
+ * adatta alla densità degli archi. Non sono accettate etichette dei nodi null e
+ * non sono accettate etichette duplicate nei nodi (che in quel caso sono lo
+ * stesso nodo).
+ *
+ * I nodi sono indicizzati da 0 a nodeCount() - 1 seguendo l'ordine del loro
+ * inserimento e, dopo la cancellazione di un nodo, gli indici dei nodi
+ * successivi vengono decrementati di uno, esattamente come in
+ * {@link AdjacencyMatrixUndirectedGraph}. Gli algoritmi che lavorano sugli
+ * indici funzionano quindi senza modifiche con entrambe le classi.
+ *
+ * Finché il grafo è sparso ogni nodo ha una lista di adiacenza formata da due
+ * array primitivi paralleli: gli indici dei vicini (int) e i pesi degli archi
+ * (double, NaN se l'arco non è pesato). Le operazioni sugli archi di un nodo
+ * costano quindi O(grado) e la memoria è O(V + E). Quando la densità
+ * 2E / V^2 supera la soglia indicata alla costruzione il grafo passa a una
+ * rappresentazione a matrice (una riga di bit di presenza e una riga di pesi
+ * per ogni nodo); se in seguito la densità scende sotto un quarto della soglia
+ * torna alle liste di adiacenza. I due passaggi costano O(V^2) e l'isteresi
+ * evita di ripeterli a ogni inserimento o cancellazione.
+ *
+ * Gli oggetti GraphEdge<L> restituiti dai metodi di lettura vengono creati al
+ * momento della richiesta.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class AdaptiveUndirectedGraph<L> extends Graph<L> {
+
+    //Soglia di densità di default oltre la quale si passa alla matrice.
+    public static final double DEFAULT_DENSITY_THRESHOLD = 0.25;
+
+    //Sotto questo numero di nodi la rappresentazione resta a liste.
+    private static final int MIN_DENSE_NODES = 64;
+
+    //Capacità iniziale delle liste di adiacenza.
+    private static final int INITIAL_DEGREE_CAPACITY = 4;
+
+    /*
+     * Le seguenti variabili istanza sono protected al solo scopo di agevolare
+     * il JUnit testing
+     */
+
+    /*
+     * Insieme dei nodi e associazione di ogni nodo con il proprio indice
+     */
+    protected Map<GraphNode<L>, Integer> nodesIndex;
+
+    //Associazione inversa indice -> nodo.
+    protected ArrayList<GraphNode<L>> nodes;
+
+    //Associazione etichetta -> nodo.
+    protected Map<L, GraphNode<L>> labels;
+
+    //True se il grafo usa la rappresentazione a matrice.
+    protected boolean dense;
+
+    //Grado di ogni nodo (valido in entrambe le rappresentazioni).
+    private int[] degree;
+
+    //Rappresentazione sparsa: indici dei vicini e pesi, i primi degree[i] sono validi.
+    private int[][] adjacent;
+    private double[][] weights;
+
+    //Rappresentazione densa: bit di presenza e pesi di ogni riga.
+    private long[][] presence;
+    private double[][] matrix;
+
+    //Numero di archi presenti.
+    private int edges;
+
+    //Soglia di densità.
+    private final double densityThreshold;
+
+    /**
+     * Crea un grafo vuoto con la soglia di densità di default.
+     */
+    public AdaptiveUndirectedGraph() {
+        this(DEFAULT_DENSITY_THRESHOLD);
+    }
+
+    /**
+     * Crea un grafo vuoto che passa alla rappresentazione a matrice quando la
+     * densità 2E / V^2 supera la soglia data.
+     *
+     * @param densityThreshold
+     *                             la soglia di densità, compresa tra 0
+     *                             (escluso) e 1
+     * @throws IllegalArgumentException
+     *                                      se la soglia non è nell'intervallo
+     *                                      (0, 1]
+     */
+    public AdaptiveUndirectedGraph(double densityThreshold) {
+        //Controllo se la soglia è valida.
+        if (!(densityThreshold > 0 && densityThreshold <= 1)) {
+            throw new IllegalArgumentException("La soglia di densità deve essere in (0, 1].");
+        }
+        this.densityThreshold = densityThreshold;
+        this.clear();
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodes.size();
+    }
+
+    @Override
+    public int edgeCount() {
+        return edges;
+    }
+
+    /**
+     * Indica la rappresentazione attualmente in uso.
+     *
+     * @return true se il grafo è rappresentato con una matrice, false se con
+     *         liste di adiacenza
+     */
+    public boolean isDense() {
+        return dense;
+    }
+
+    @Override
+    public void clear() {
+        this.nodesIndex = new HashMap<GraphNode<L>, Integer>();
+        this.nodes = new ArrayList<GraphNode<L>>();
+        this.labels = new HashMap<L, GraphNode<L>>();
+        this.dense = false;
+        this.degree = new int[INITIAL_DEGREE_CAPACITY];
+        this.adjacent = new int[INITIAL_DEGREE_CAPACITY][];
+        this.weights = new double[INITIAL_DEGREE_CAPACITY][];
+        this.presence = null;
+        this.matrix = null;
+        this.edges = 0;
+    }
+
+    @Override
+    public boolean isDirected() {
+        //Torno direttamente false, questo grafo non è orientato.
+        return false;
+    }
+
+    /*
+     * Gli indici dei nodi vanno assegnati nell'ordine di inserimento a partire
+     * da zero
+     */
+    @Override
+    public boolean addNode(GraphNode<L> node) {
+        //Controllo se node è nullo.
+        if (node == null) {
+            throw new NullPointerException("Il nodo passato è null");
+        }
+        //Controllo se è già presente quel nodo.
+        if (nodesIndex.containsKey(node)) {
+            return false;
+        }
+        int newIndice = nodes.size();
+        //Se gli array sono pieni raddoppio la capacità:
+        if (newIndice == degree.length) {
+            grow(2 * degree.length);
+        }
+        nodesIndex.put(node, newIndice);
+        nodes.add(node);
+        labels.put(node.getLabel(), node);
+        degree[newIndice] = 0;
+        if (dense) {
+            presence[newIndice] = new long[presence[0].length];
+            matrix[newIndice] = new double[degree.length];
+        } else {
+            adjacent[newIndice] = new int[INITIAL_DEGREE_CAPACITY];
+            weights[newIndice] = new double[INITIAL_DEGREE_CAPACITY];
+        }
+        adapt();
+        return true;
+    }
+
+    @Override
+    public boolean addNode(L label) {
+        //Controllo se label è nullo.
+        if (label == null) {
+            throw new NullPointerException("Il parametro passato è nullo");
+        }
+        return addNode(new GraphNode<>(label));
+    }
+
+    /*
+     * Gli indici dei nodi il cui valore sia maggiore dell'indice del nodo da
+     * cancellare devono essere decrementati di uno dopo la cancellazione del
+     * nodo
+     */
+    @Override
+    public void removeNode(GraphNode<L> node) {
+        //Controllo se node è nullo.
+        if (node == null) {
+            throw new NullPointerException("Il nodo passato è null.");
+        }
+        //Controllo se il Grafo contiene node.
+        if (!nodesIndex.containsKey(node)) {
+            throw new IllegalArgumentException("Il nodo non esiste in questo grafo.");
+        }
+        int indiceRimosso = nodesIndex.remove(node);
+        int n = nodes.size();
+        edges -= degree[indiceRimosso];
+        if (dense) {
+            //Tolgo la colonna da ogni riga e poi la riga stessa:
+            for (int i = 0; i < n; i++) {
+                if (isSet(presence[i], indiceRimosso) && i != indiceRimosso) {
+                    degree[i]--;
+                }
+                removeBit(presence[i], indiceRimosso);
+                System.arraycopy(matrix[i], indiceRimosso + 1, matrix[i], indiceRimosso, n - indiceRimosso - 1);
+            }
+            removeSlot(presence, indiceRimosso, n);
+            removeSlot(matrix, indiceRimosso, n);
+            System.arraycopy(degree, indiceRimosso + 1, degree, indiceRimosso, n - indiceRimosso - 1);
+        } else {
+            //Tolgo il nodo dalle liste dei suoi vicini:
+            for (int k = 0; k < degree[indiceRimosso]; k++) {
+                int vicino = adjacent[indiceRimosso][k];
+                if (vicino != indiceRimosso) {
+                    removeFromList(vicino, indiceRimosso);
+                }
+            }
+            removeSlot(adjacent, indiceRimosso, n);
+            removeSlot(weights, indiceRimosso, n);
+            System.arraycopy(degree, indiceRimosso + 1, degree, indiceRimosso, n - indiceRimosso - 1);
+            //Decremento gli indici dei vicini successivi a quello rimosso:
+            for (int i = 0; i < n - 1; i++) {
+                int[] lista = adjacent[i];
+                for (int k = 0; k < degree[i]; k++) {
+                    if (lista[k] > indiceRimosso) {
+                        lista[k]--;
+                    }
+                }
+            }
+        }
+        nodes.remove(indiceRimosso);
+        labels.remove(node.getLabel());
+        //Aggiorno gli indici dei nodi successivi a quello rimosso:
+        for (int i = indiceRimosso; i < nodes.size(); i++) {
+            nodesIndex.put(nodes.get(i), i);
+        }
+        adapt();
+    }
+
+    @Override
+    public void removeNode(L label) {
+        GraphNode<L> node = this.getNode(label);
+        //Controllo se è nullo:
+        if (node == null) {
+            throw new IllegalArgumentException("L'etichetta passata non corrisponde a nessun nodo.");
+        }
+        removeNode(node);
+    }
+
+    @Override
+    public void removeNode(int i) {
+        this.removeNode(this.getNode(i));
+    }
+
+    @Override
+    public GraphNode<L> getNode(GraphNode<L> node) {
+        //Controllo se il nodo è nullo:
+        if (node == null) {
+            throw new NullPointerException("Il nodo passato è nullo.");
+        }
+        return nodesIndex.containsKey(node) ? node : null;
+    }
+
+    @Override
+    public GraphNode<L> getNode(L label) {
+        //Controllo se l'etichetta passata è nulla.
+        if (label == null) {
+            throw new NullPointerException("L'etichetta è nulla.");
+        }
+        return labels.get(label);
+    }
+
+    @Override
+    public GraphNode<L> getNode(int i) {
+        checkIndex(i);
+        return nodes.get(i);
+    }
+
+    @Override
+    public int getNodeIndexOf(GraphNode<L> node) {
+        //Controllo se il nodo passato è nullo:
+        if (node == null) {
+            throw new NullPointerException("Il nodo passato è null.");
+        }
+        Integer indice = nodesIndex.get(node);
+        //Controllo se la mappa contiene il nodo:
+        if (indice == null) {
+            throw new IllegalArgumentException("Il nodo passato non esiste in questo grafo.");
+        }
+        return indice;
+    }
+
+    @Override
+    public int getNodeIndexOf(L label) {
+        GraphNode<L> node = this.getNode(label);
+        //Controllo se è nullo:
+        if (node == null) {
+            throw new IllegalArgumentException("Il nodo è nullo.");
+        }
+        return this.getNodeIndexOf(node);
+    }
+
+    @Override
+    public Set<GraphNode<L>> getNodes() {
+        return Collections.unmodifiableSet(nodesIndex.keySet());
+    }
+
+    @Override
+    public boolean addEdge(GraphEdge<L> edge) {
+        //Controllo se l'arco passato è nullo:
+        if (edge == null) {
+            throw new NullPointerException("L'arco passato è nullo.");
+        }
+        //Controllo se è orientato:
+        if (edge.isDirected()) {
+            throw new IllegalArgumentException("L'arco è orientato in un grafo non orientato.");
+        }
+        int iUno = indexOfEdgeNode(edge.getNode1());
+        int iDue = indexOfEdgeNode(edge.getNode2());
+        //Controllo se l'arco esiste già:
+        if (contains(iUno, iDue)) {
+            return false;
+        }
+        insert(iUno, iDue, edge.hasWeight() ? edge.getWeight() : Double.NaN);
+        adapt();
+        return true;
+    }
+
+    @Override
+    public boolean addEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        //Controllo se i due nodi sono nulli:
+        if (node1 == null || node2 == null) {
+            throw new NullPointerException("Almeno uno dei due nodi è nullo.");
+        }
+        return this.addEdge(new GraphEdge<>(node1, node2, false));
+    }
+
+    @Override
+    public boolean addWeightedEdge(GraphNode<L> node1, GraphNode<L> node2, double weight) {
+        //Controllo se almeno uno dei due nodi è nullo:
+        if (node1 == null || node2 == null) {
+            throw new NullPointerException("Almeno uno dei due nodi è nullo.");
+        }
+        return this.addEdge(new GraphEdge<>(node1, node2, false, weight));
+    }
+
+    @Override
+    public boolean addEdge(L label1, L label2) {
+        //Controllo se almeno una delle due etichette è nulla:
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("Almeno una delle due etichette è nulla.");
+        }
+        return this.addEdge(this.getNode(label1), this.getNode(label2));
+    }
+
+    @Override
+    public boolean addWeightedEdge(L label1, L label2, double weight) {
+        //Controllo se almeno una delle due etichette è nulla:
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("Almeno una delle due etichette è nulla.");
+        }
+        return this.addWeightedEdge(this.getNode(label1), this.getNode(label2), weight);
+    }
+
+    @Override
+    public boolean addEdge(int i, int j) {
+        return this.addWeightedEdge(i, j, Double.NaN);
+    }
+
+    @Override
+    public boolean addWeightedEdge(int i, int j, double weight) {
+        checkIndex(i);
+        checkIndex(j);
+        //Controllo se l'arco esiste già:
+        if (contains(i, j)) {
+            return false;
+        }
+        insert(i, j, weight);
+        adapt();
+        return true;
+    }
+
+    @Override
+    public void removeEdge(GraphEdge<L> edge) {
+        //Controllo se l'arco passato è nullo:
+        if (edge == null) {
+            throw new NullPointerException("L'arco passato è nullo.");
+        }
+        this.removeEdge(indexOfEdgeNode(edge.getNode1()), indexOfEdgeNode(edge.getNode2()));
+    }
+
+    @Override
+    public void removeEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        //Controllo se almeno uno dei due nodi è nullo:
+        if (node1 == null || node2 == null) {
+            throw new NullPointerException("Almeno uno dei due nodi è nullo.");
+        }
+        this.removeEdge(new GraphEdge<>(node1, node2, false));
+    }
+
+    @Override
+    public void removeEdge(L label1, L label2) {
+        //Controllo se almeno una delle due etichette è nulla:
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("Almeno una delle due etichette è nulla.");
+        }
+        this.removeEdge(this.getNode(label1), this.getNode(label2));
+    }
+
+    @Override
+    public void removeEdge(int i, int j) {
+        checkIndex(i);
+        checkIndex(j);
+        //Controllo se l'arco esiste:
+        if (!contains(i, j)) {
+            throw new IllegalArgumentException("L'arco non esiste.");
+        }
+        if (dense) {
+            clearBit(presence[i], j);
+            clearBit(presence[j], i);
+        } else {
+            removeFromList(i, j);
+            if (i != j) {
+                removeFromList(j, i);
+            }
+        }
+        if (dense) {
+            degree[i]--;
+            if (i != j) {
+                degree[j]--;
+            }
+        }
+        edges--;
+        adapt();
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(GraphEdge<L> edge) {
+        //Controllo se l'arco passato è nullo:
+        if (edge == null) {
+            throw new NullPointerException("L'arco passato è nullo.");
+        }
+        return this.getEdge(indexOfEdgeNode(edge.getNode1()), indexOfEdgeNode(edge.getNode2()));
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        //Controllo se almeno uno dei due nodi è nullo:
+        if (node1 == null || node2 == null) {
+            throw new NullPointerException("Almeno uno dei due nodi è nullo.");
+        }
+        return this.getEdge(new GraphEdge<>(node1, node2, false));
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(L label1, L label2) {
+        //Controllo se almeno una delle due etichette è nulla:
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("Almeno una delle due etichette è nulla.");
+        }
+        return this.getEdge(this.getNode(label1), this.getNode(label2));
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(int i, int j) {
+        checkIndex(i);
+        checkIndex(j);
+        if (dense) {
+            return isSet(presence[i], j) ? newEdge(i, j, matrix[i][j]) : null;
+        }
+        //Il peso è lo stesso nelle due liste, cerco in quella più corta:
+        int da = degree[j] < degree[i] ? j : i;
+        int posizione = positionOf(da, da == i ? j : i, degree[da]);
+        return posizione < 0 ? null : newEdge(i, j, weights[da][posizione]);
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(GraphNode<L> node) {
+        return this.getAdjacentNodesOf(this.getNodeIndexOf(node));
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(L label) {
+        //Controllo se l'etichetta passata è nulla:
+        if (label == null) {
+            throw new NullPointerException("L'etichetta passata è nulla: ");
+        }
+        return this.getAdjacentNodesOf(this.getNode(label));
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(int i) {
+        checkIndex(i);
+        Set<GraphNode<L>> set = new HashSet<>();
+        if (dense) {
+            long[] riga = presence[i];
+            for (int w = 0; w < riga.length; w++) {
+                long parola = riga[w];
+                while (parola != 0) {
+                    set.add(nodes.get(w * Long.SIZE + Long.numberOfTrailingZeros(parola)));
+                    parola &= parola - 1;
+                }
+            }
+        } else {
+            //Scorro solo i degree[i] vicini, non tutta la riga:
+            for (int k = 0; k < degree[i]; k++) {
+                set.add(nodes.get(adjacent[i][k]));
+            }
+        }
+        return set;
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(GraphNode<L> node) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(L label) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(int i) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(GraphNode<L> node) {
+        return this.getEdgesOf(this.getNodeIndexOf(node));
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(L label) {
+        return this.getEdgesOf(this.getNode(label));
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(int i) {
+        checkIndex(i);
+        Set<GraphEdge<L>> set = new HashSet<>();
+        if (dense) {
+            long[] riga = presence[i];
+            for (int w = 0; w < riga.length; w++) {
+                long parola = riga[w];
+                while (parola != 0) {
+                    int j = w * Long.SIZE + Long.numberOfTrailingZeros(parola);
+                    set.add(newEdge(i, j, matrix[i][j]));
+                    parola &= parola - 1;
+                }
+            }
+        } else {
+            for (int k = 0; k < degree[i]; k++) {
+                set.add(newEdge(i, adjacent[i][k], weights[i][k]));
+            }
+        }
+        return set;
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(GraphNode<L> node) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(L label) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(int i) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdges() {
+        Set<GraphEdge<L>> set = new HashSet<>();
+        //Ogni arco {i, j} viene creato una sola volta, dal nodo di indice minore.
+        for (int i = 0; i < nodes.size(); i++) {
+            if (dense) {
+                long[] riga = presence[i];
+                for (int w = i / Long.SIZE; w < riga.length; w++) {
+                    long parola = riga[w];
+                    if (w == i / Long.SIZE) {
+                        parola &= -1L << (i % Long.SIZE);
+                    }
+                    while (parola != 0) {
+                        int j = w * Long.SIZE + Long.numberOfTrailingZeros(parola);
+                        set.add(newEdge(i, j, matrix[i][j]));
+                        parola &= parola - 1;
+                    }
+                }
+            } else {
+                for (int k = 0; k < degree[i]; k++) {
+                    if (adjacent[i][k] >= i) {
+                        set.add(newEdge(i, adjacent[i][k], weights[i][k]));
+                    }
+                }
+            }
+        }
+        return set;
+    }
+
+    /*
+     * Controlla la densità corrente e, se necessario, cambia rappresentazione.
+     * Il passaggio alla matrice avviene sopra la soglia, il ritorno alle liste
+     * sotto un quarto della soglia.
+     */
+    private void adapt() {
+        int n = nodes.size();
+        double densita = n == 0 ? 0 : 2.0 * edges / ((double) n * n);
+        if (!dense && n >= MIN_DENSE_NODES && densita > densityThreshold) {
+            toDense();
+        } else if (dense && (n < MIN_DENSE_NODES || densita < densityThreshold / 4)) {
+            toSparse();
+        }
+    }
+
+    //Metodo privato: passaggio dalle liste di adiacenza alla matrice.
+    private void toDense() {
+        int capacita = degree.length;
+        int parole = (capacita + Long.SIZE - 1) / Long.SIZE;
+        presence = new long[capacita][];
+        matrix = new double[capacita][];
+        for (int i = 0; i < nodes.size(); i++) {
+            presence[i] = new long[parole];
+            matrix[i] = new double[capacita];
+            for (int k = 0; k < degree[i]; k++) {
+                setBit(presence[i], adjacent[i][k]);
+                matrix[i][adjacent[i][k]] = weights[i][k];
+            }
+        }
+        adjacent = null;
+        weights = null;
+        dense = true;
+    }
+
+    //Metodo privato: passaggio dalla matrice alle liste di adiacenza.
+    private void toSparse() {
+        int capacita = degree.length;
+        adjacent = new int[capacita][];
+        weights = new double[capacita][];
+        for (int i = 0; i < nodes.size(); i++) {
+            int lunghezza = Math.max(INITIAL_DEGREE_CAPACITY, degree[i]);
+            adjacent[i] = new int[lunghezza];
+            weights[i] = new double[lunghezza];
+            int k = 0;
+            long[] riga = presence[i];
+            for (int w = 0; w < riga.length; w++) {
+                long parola = riga[w];
+                while (parola != 0) {
+                    int j = w * Long.SIZE + Long.numberOfTrailingZeros(parola);
+                    adjacent[i][k] = j;
+                    weights[i][k] = matrix[i][j];
+                    k++;
+                    parola &= parola - 1;
+                }
+            }
+        }
+        presence = null;
+        matrix = null;
+        dense = false;
+    }
+
+    //Metodo privato: porta la capacità (numero massimo di nodi) al valore dato.
+    private void grow(int capacita) {
+        degree = Arrays.copyOf(degree, capacita);
+        if (dense) {
+            int parole = (capacita + Long.SIZE - 1) / Long.SIZE;
+            presence = Arrays.copyOf(presence, capacita);
+            matrix = Arrays.copyOf(matrix, capacita);
+            for (int i = 0; i < nodes.size(); i++) {
+                presence[i] = Arrays.copyOf(presence[i], parole);
+                matrix[i] = Arrays.copyOf(matrix[i], capacita);
+            }
+        } else {
+            adjacent = Arrays.copyOf(adjacent, capacita);
+            weights = Arrays.copyOf(weights, capacita);
+        }
+    }
+
+    //Metodo privato: true se esiste l'arco {i, j}.
+    private boolean contains(int i, int j) {
+        if (dense) {
+            return isSet(presence[i], j);
+        }
+        //Cerco nella lista più corta tra quella di i e quella di j.
+        return degree[j] < degree[i] ? positionOf(j, i, degree[j]) >= 0 : positionOf(i, j, degree[i]) >= 0;
+    }
+
+    //Metodo privato: posizione di j tra i primi grado elementi della lista di i, -1 se assente.
+    private int positionOf(int i, int j, int grado) {
+        int[] lista = adjacent[i];
+        for (int k = 0; k < grado; k++) {
+            if (lista[k] == j) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    //Metodo privato: inserisce l'arco {i, j} senza controlli.
+    private void insert(int i, int j, double peso) {
+        if (dense) {
+            setBit(presence[i], j);
+            setBit(presence[j], i);
+            matrix[i][j] = peso;
+            matrix[j][i] = peso;
+            degree[i]++;
+            if (i != j) {
+                degree[j]++;
+            }
+        } else {
+            append(i, j, peso);
+            if (i != j) {
+                append(j, i, peso);
+            }
+        }
+        edges++;
+    }
+
+    //Metodo privato: aggiunge j in fondo alla lista di i.
+    private void append(int i, int j, double peso) {
+        if (degree[i] == adjacent[i].length) {
+            adjacent[i] = Arrays.copyOf(adjacent[i], 2 * degree[i]);
+            weights[i] = Arrays.copyOf(weights[i], 2 * degree[i]);
+        }
+        adjacent[i][degree[i]] = j;
+        weights[i][degree[i]] = peso;
+        degree[i]++;
+    }
+
+    //Metodo privato: toglie j dalla lista di i spostando l'ultimo elemento al suo posto.
+    private void removeFromList(int i, int j) {
+        int posizione = positionOf(i, j, degree[i]);
+        int ultimo = --degree[i];
+        adjacent[i][posizione] = adjacent[i][ultimo];
+        weights[i][posizione] = weights[i][ultimo];
+    }
+
+    //Metodo privato: crea l'oggetto arco corrispondente a {i, j}.
+    private GraphEdge<L> newEdge(int i, int j, double peso) {
+        if (Double.isNaN(peso)) {
+            return new GraphEdge<>(nodes.get(i), nodes.get(j), false);
+        }
+        return new GraphEdge<>(nodes.get(i), nodes.get(j), false, peso);
+    }
+
+    //Metodo privato: indice di un nodo di un arco, con i controlli del caso.
+    private int indexOfEdgeNode(GraphNode<L> node) {
+        Integer indice = nodesIndex.get(node);
+        if (indice == null) {
+            throw new IllegalArgumentException("Almeno uno dei due nodi specificati non esiste.");
+        }
+        return indice;
+    }
+
+    //Metodo privato: controllo dell'indice di un nodo.
+    private void checkIndex(int i) {
+        if (i < 0 || i > this.nodeCount() - 1) {
+            throw new IndexOutOfBoundsException("L'indice passato non corrisponde a nessun nodo o è fuori dai limiti dell'intervallo.");
+        }
+    }
+
+    /*
+     * Elimina la posizione i delle prime n posizioni di un array facendo
+     * scorrere le successive e libera l'ultima.
+     */
+    private static void removeSlot(Object[] array, int i, int n) {
+        System.arraycopy(array, i + 1, array, i, n - i - 1);
+        array[n - 1] = null;
+    }
+
+    private static boolean isSet(long[] riga, int j) {
+        return (riga[j >>> 6] & (1L << j)) != 0;
+    }
+
+    private static void setBit(long[] riga, int j) {
+        riga[j >>> 6] |= 1L << j;
+    }
+
+    private static void clearBit(long[] riga, int j) {
+        riga[j >>> 6] &= ~(1L << j);
+    }
+
+    /*
+     * Elimina il bit in posizione j facendo scorrere di una posizione verso il
+     * basso tutti i bit successivi, parola per parola.
+     */
+    private static void removeBit(long[] riga, int j) {
+        int w = j >>> 6;
+        long parola = riga[w];
+        long bassi = parola & ((1L << j) - 1);
+        long alti = (parola >>> 1) & ~((1L << j) - 1);
+        riga[w] = bassi | alti;
+        for (int k = w + 1; k < riga.length; k++) {
+            riga[k - 1] |= riga[k] << 63;
+            riga[k] >>>= 1;
+        }
+    }
+}
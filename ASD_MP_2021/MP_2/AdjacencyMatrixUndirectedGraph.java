@@ -62,6 +62,35 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
      */
     protected ArrayList<ArrayList<GraphEdge<L>>> matrix;
 
+    /*
+     * Versione del grafo: viene incrementata da ogni operazione che modifica
+     * nodi o archi, alla fine della modifica e tenendo il lock del grafo (il
+     * monitor di this), per cui gli incrementi non si perdono. Due letture con
+     * la stessa versione vedono lo stesso grafo.
+     */
+    private volatile long version;
+
+    /*
+     * Copie immutabili dell'insieme dei nodi e degli archi, valide finché la
+     * versione del grafo è quella con cui sono state create.
+     */
+    private volatile Snapshot<GraphNode<L>> nodesSnapshot;
+    private volatile Snapshot<GraphEdge<L>> edgesSnapshot;
+
+    /*
+     * Classe interna statica: copia immutabile di un insieme associata alla
+     * versione del grafo in cui è stata creata.
+     */
+    private static final class Snapshot<T> {
+        private final long version;
+        private final Set<T> set;
+
+        private Snapshot(long version, Set<T> set) {
+            this.version = version;
+            this.set = Collections.unmodifiableSet(set);
+        }
+    }
+
     /**
      * Crea un grafo vuoto.
      */
@@ -70,6 +99,23 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         this.nodesIndex = new HashMap<GraphNode<L>, Integer>();
     }
 
+    /*
+     * Crea un grafo che contiene i nodi dati, indicizzati nell'ordine della
+     * lista, con la matrice di adiacenza già della dimensione finale e tutta a
+     * null. Ogni struttura viene dimensionata una sola volta; gli archi vengono
+     * poi scritti direttamente da AdjacencyMatrixUndirectedGraphBuilder.
+     */
+    AdjacencyMatrixUndirectedGraph(List<GraphNode<L>> nodi) {
+        int n = nodi.size();
+        this.nodesIndex = new HashMap<GraphNode<L>, Integer>(Math.max(16, (int) (n / 0.75f) + 1));
+        this.matrix = new ArrayList<ArrayList<GraphEdge<L>>>(n);
+        List<GraphEdge<L>> vuota = Collections.nCopies(n, null);
+        for (int i = 0; i < n; i++) {
+            nodesIndex.put(nodi.get(i), i);
+            matrix.add(new ArrayList<GraphEdge<L>>(vuota));
+        }
+    }
+
     @Override
     public int nodeCount() {
         return nodesIndex.size();
@@ -81,10 +127,27 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
     }
 
     @Override
-    public void clear() {
+    public synchronized void clear() {
         this.matrix = new ArrayList<ArrayList<GraphEdge<L>>>();
         this.nodesIndex = new HashMap<GraphNode<L>, Integer>();
         this.arch = new HashSet<>();
+        this.version++;
+    }
+
+    /**
+     * Restituisce la versione corrente del grafo. La versione viene
+     * incrementata da ogni operazione che modifica effettivamente i nodi o gli
+     * archi (le operazioni che restituiscono false o lanciano eccezione non la
+     * cambiano), per cui due chiamate che restituiscono lo stesso valore
+     * osservano lo stesso grafo. L'incremento avviene a modifica completata e
+     * mentre la modifica tiene il lock del grafo, per cui le copie restituite
+     * da {@link #getNodes()} e {@link #getEdges()} corrispondono sempre
+     * esattamente a una versione.
+     *
+     * @return la versione corrente del grafo
+     */
+    public long getVersion() {
+        return version;
     }
 
     @Override
@@ -98,7 +161,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
      * da zero
      */
     @Override
-    public boolean addNode(GraphNode<L> node) {
+    public synchronized boolean addNode(GraphNode<L> node) {
         //Controllo se node è nullo.
         if (node == null) {
             throw new NullPointerException("Il nodo passato è null");
@@ -122,6 +185,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         }
         //Uso la size della mappa, è gia aggiornata.
         matrix.add(list); //per default null.
+        version++;
         return true;
     }
 
@@ -147,7 +211,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
      * nodo
      */
     @Override
-    public void removeNode(GraphNode<L> node) {
+    public synchronized void removeNode(GraphNode<L> node) {
         //Controllo se node è nullo.
         if (node == null) {
             throw new NullPointerException("Il nodo passato è null.");
@@ -157,6 +221,8 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
             throw new IllegalArgumentException("Il nodo non esiste in questo grafo.");
         }
         int indiceRimosso = nodesIndex.remove(node); //Ho cambiato gia la dimensione della mappa e rimosso il nodo.
+        //Tolgo dal Set di archi quelli che toccano il nodo rimosso:
+        removeEdgesOfRow(indiceRimosso);
         //Scorro tutte le chiavi della mappa:
         for (Map.Entry<GraphNode<L>, Integer> c : nodesIndex.entrySet()) {
             //Controllo se il valore è maggiore dell'indice rimosso:
@@ -172,6 +238,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         for (int i = 0; i < nodesIndex.size(); i++) {
             matrix.get(i).remove(indiceRimosso);
         }
+        version++;
 
     }
 
@@ -203,6 +270,89 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         this.removeNode(node); //richiamo il metodo removeNode(node).
     }
 
+    /**
+     * Cancella un nodo in tempo O(V) invece che O(V^2). Al posto dello
+     * scorrimento di tutti gli indici successivi, il nodo con l'indice più alto
+     * (nodeCount() - 1) viene spostato nella posizione liberata: la sua riga
+     * prende il posto della riga cancellata e in ogni riga la sua colonna
+     * prende il posto della colonna cancellata, per cui le ArrayList vengono
+     * accorciate solo in fondo. Vengono cancellati anche tutti gli archi che
+     * toccano il nodo.
+     *
+     * Dopo la cancellazione gli indici sono ancora compatti, da 0 a
+     * nodeCount() - 1, ma non rispettano più l'ordine di inserimento: l'unico
+     * nodo che cambia indice è quello restituito, che prende l'indice del nodo
+     * cancellato. Chi ha bisogno della numerazione per ordine di inserimento
+     * deve usare {@link #removeNode(GraphNode)}.
+     *
+     * @param node
+     *                 il nodo da cancellare
+     * @return il nodo spostato nell'indice del nodo cancellato, null se il nodo
+     *         cancellato era l'ultimo
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo non esiste nel grafo
+     */
+    public synchronized GraphNode<L> swapRemoveNode(GraphNode<L> node) {
+        //Controllo se node è nullo.
+        if (node == null) {
+            throw new NullPointerException("Il nodo passato è null.");
+        }
+        //Controllo se il Grafo contiene node.
+        if (!nodesIndex.containsKey(node)) {
+            throw new IllegalArgumentException("Il nodo non esiste in questo grafo.");
+        }
+        int indiceRimosso = nodesIndex.get(node);
+        int ultimo = nodesIndex.size() - 1;
+        GraphNode<L> spostato = indiceRimosso == ultimo ? null : this.getNode(ultimo);
+        nodesIndex.remove(node);
+        //Tolgo dal Set di archi quelli che toccano il nodo rimosso:
+        removeEdgesOfRow(indiceRimosso);
+        if (spostato != null) {
+            //La riga dell'ultimo nodo prende il posto di quella cancellata:
+            matrix.set(indiceRimosso, matrix.get(ultimo));
+            //In ogni riga la colonna dell'ultimo nodo prende il posto di quella cancellata:
+            for (int i = 0; i < ultimo; i++) {
+                ArrayList<GraphEdge<L>> riga = matrix.get(i);
+                riga.set(indiceRimosso, riga.get(ultimo));
+            }
+            nodesIndex.put(spostato, indiceRimosso);
+        }
+        //Accorcio le ArrayList solo in fondo, senza scorrimenti:
+        matrix.remove(ultimo);
+        for (int i = 0; i < ultimo; i++) {
+            matrix.get(i).remove(ultimo);
+        }
+        version++;
+        return spostato;
+    }
+
+    /**
+     * Cancella il nodo di indice dato in tempo O(V); si veda
+     * {@link #swapRemoveNode(GraphNode)} per il contratto sugli indici.
+     *
+     * @param i
+     *              l'indice del nodo da cancellare
+     * @return il nodo spostato nell'indice i, null se il nodo cancellato era
+     *         l'ultimo
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non corrisponde a
+     *                                       nessun nodo
+     */
+    public GraphNode<L> swapRemoveNode(int i) {
+        return this.swapRemoveNode(this.getNode(i));
+    }
+
+    //Metodo privato: toglie dal Set di archi tutti gli archi della riga data.
+    private void removeEdgesOfRow(int indice) {
+        for (GraphEdge<L> arco : matrix.get(indice)) {
+            if (arco != null) {
+                arch.remove(arco);
+            }
+        }
+    }
+
     @Override
     public GraphNode<L> getNode(GraphNode<L> node) {
         //Controllo se il nodo è nullo:
@@ -275,14 +425,40 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         return this.getNodeIndexOf(node);
     }
 
+    /*
+     * Restituisce una copia immutabile dell'insieme dei nodi. La copia viene
+     * creata alla prima richiesta dopo una modifica e poi riusata finché il
+     * grafo non cambia versione, per cui letture ripetute di un grafo non
+     * modificato non costano nulla. La copia non cambia se il grafo viene
+     * modificato in seguito e può essere letta da altri thread.
+     *
+     * Le operazioni che modificano il grafo e la creazione della copia sono
+     * mutuamente esclusive (tengono entrambe il monitor di this): la copia
+     * restituita è sempre l'insieme dei nodi di una versione completa del
+     * grafo, quella registrata nella copia, e mai di una modifica a metà. Se
+     * la copia in cache è della versione corrente viene restituita senza
+     * prendere il lock.
+     */
     @Override
     public Set<GraphNode<L>> getNodes() {
-        //Torno tutte le chiavi della mappa:
-        return nodesIndex.keySet();
+        Snapshot<GraphNode<L>> snapshot = nodesSnapshot;
+        //Se la copia è della versione corrente la restituisco senza lock:
+        if (snapshot != null && snapshot.version == version) {
+            return snapshot.set;
+        }
+        synchronized (this) {
+            snapshot = nodesSnapshot;
+            //Ricontrollo: un altro thread può averla già creata.
+            if (snapshot == null || snapshot.version != version) {
+                snapshot = new Snapshot<>(version, new HashSet<>(nodesIndex.keySet()));
+                nodesSnapshot = snapshot;
+            }
+            return snapshot.set;
+        }
     }
 
     @Override
-    public boolean addEdge(GraphEdge<L> edge) {
+    public synchronized boolean addEdge(GraphEdge<L> edge) {
         //Controllo se l'arco passato è nullo:
         if (edge == null) {
             throw new NullPointerException("L'arco passato è nullo.");
@@ -309,6 +485,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         matrix.get(iDue).set(iUno, edge);
         matrix.get(iUno).set(iDue, edge);
         arch.add(edge); //aggiungo l'arco al Set di archi.
+        version++;
         return true;
     }
 
@@ -381,7 +558,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
     }
 
     @Override
-    public void removeEdge(GraphEdge<L> edge) {
+    public synchronized void removeEdge(GraphEdge<L> edge) {
         //Controllo se l'arco passato è nullo:
         if (edge == null) {
             throw new NullPointerException("L'arco passato è nullo.");
@@ -404,6 +581,7 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
         matrix.get(iUno).set(iDue, null);
         matrix.get(iDue).set(iUno, null);
         arch.remove(edge);
+        version++;
     }
 
     @Override
@@ -592,11 +770,217 @@ public class AdjacencyMatrixUndirectedGraph<L> extends Graph<L> {
                 "Operazione non supportata in un grafo non orientato");
     }
 
+    /*
+     * Restituisce una copia immutabile dell'insieme degli archi, con le stesse
+     * regole di creazione e riuso e la stessa garanzia di consistenza della
+     * copia dei nodi (si veda getNodes()).
+     */
     @Override
     public Set<GraphEdge<L>> getEdges() {
-        //Richiamo direttamente il set di archi:
-        Set<GraphEdge<L>> set = new HashSet<>(arch);
-        return set;
+        Snapshot<GraphEdge<L>> snapshot = edgesSnapshot;
+        //Se la copia è della versione corrente la restituisco senza lock:
+        if (snapshot != null && snapshot.version == version) {
+            return snapshot.set;
+        }
+        synchronized (this) {
+            snapshot = edgesSnapshot;
+            //Ricontrollo: un altro thread può averla già creata.
+            if (snapshot == null || snapshot.version != version) {
+                snapshot = new Snapshot<>(version, new HashSet<>(arch));
+                edgesSnapshot = snapshot;
+            }
+            return snapshot.set;
+        }
+    }
+
+    /**
+     * Visita i vicini del nodo di indice dato senza creare alcun oggetto: per
+     * ogni arco {node, j} viene chiamato {@code action.accept(j, peso)}, dove
+     * il peso è NaN se l'arco non è pesato. I vicini sono visitati in ordine
+     * crescente di indice.
+     *
+     * @param node
+     *                   l'indice del nodo
+     * @param action
+     *                   l'operazione da eseguire su ogni vicino
+     * @throws NullPointerException
+     *                                       se l'operazione è nulla
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non corrisponde a
+     *                                       nessun nodo
+     */
+    public void forEachNeighbor(int node, IntDoubleConsumer action) {
+        //Controllo se l'operazione passata è nulla.
+        if (action == null) {
+            throw new NullPointerException("L'operazione passata è nulla.");
+        }
+        checkIndex(node);
+        ArrayList<GraphEdge<L>> riga = matrix.get(node);
+        for (int j = 0; j < riga.size(); j++) {
+            GraphEdge<L> arco = riga.get(j);
+            if (arco != null) {
+                action.accept(j, arco.getWeight());
+            }
+        }
+    }
+
+    /**
+     * Crea un cursore sugli archi di questo grafo. Il cursore può essere
+     * riposizionato con {@link EdgeCursor#reset(int)} o
+     * {@link EdgeCursor#resetAll()} e riusato per un numero qualsiasi di
+     * visite, per cui una visita non alloca memoria.
+     *
+     * @return un nuovo cursore, non posizionato
+     */
+    public EdgeCursor newEdgeCursor() {
+        return new EdgeCursor();
+    }
+
+    /**
+     * Cursore riutilizzabile sugli archi del grafo, espressi come terne
+     * primitive (sorgente, destinazione, peso). Può scorrere gli archi incidenti
+     * a un nodo oppure tutti gli archi del grafo (ognuno una sola volta, con
+     * sorgente minore o uguale alla destinazione). Il cursore legge
+     * direttamente la matrice: modificare il grafo durante una visita ha
+     * effetti non specificati.
+     *
+     * Uso tipico:
+     *
+     * <pre>
+     * cursor.reset(i);
+     * while (cursor.next()) {
+     *     int j = cursor.target();
+     *     double w = cursor.weight();
+     * }
+     * </pre>
+     */
+    public class EdgeCursor {
+        //Riga e colonna correnti.
+        private int row;
+        private int column;
+        //Ultima riga da visitare (inclusa).
+        private int lastRow;
+        //True se si visitano tutti gli archi (solo colonne >= riga).
+        private boolean all;
+        //Arco corrente.
+        private GraphEdge<L> current;
+
+        private EdgeCursor() {
+            this.row = 0;
+            this.lastRow = -1;
+        }
+
+        /**
+         * Posiziona il cursore prima del primo arco incidente al nodo dato.
+         *
+         * @param node
+         *                 l'indice del nodo
+         * @throws IndexOutOfBoundsException
+         *                                       se l'indice non corrisponde a
+         *                                       nessun nodo
+         */
+        public void reset(int node) {
+            checkIndex(node);
+            this.row = node;
+            this.lastRow = node;
+            this.column = -1;
+            this.all = false;
+            this.current = null;
+        }
+
+        /**
+         * Posiziona il cursore prima del primo arco del grafo.
+         */
+        public void resetAll() {
+            this.row = 0;
+            this.lastRow = nodeCount() - 1;
+            this.column = -1;
+            this.all = true;
+            this.current = null;
+        }
+
+        /**
+         * Avanza all'arco successivo.
+         *
+         * @return true se esiste un arco successivo, false se la visita è
+         *         terminata
+         */
+        public boolean next() {
+            while (row <= lastRow) {
+                ArrayList<GraphEdge<L>> riga = matrix.get(row);
+                //Nella visita di tutti gli archi parto dalla diagonale.
+                if (all && column < row) {
+                    column = row - 1;
+                }
+                while (++column < riga.size()) {
+                    if (riga.get(column) != null) {
+                        current = riga.get(column);
+                        return true;
+                    }
+                }
+                row++;
+                column = -1;
+            }
+            current = null;
+            return false;
+        }
+
+        /**
+         * @return l'indice del nodo sorgente dell'arco corrente
+         */
+        public int source() {
+            checkCurrent();
+            return row;
+        }
+
+        /**
+         * @return l'indice del nodo destinazione dell'arco corrente
+         */
+        public int target() {
+            checkCurrent();
+            return column;
+        }
+
+        /**
+         * @return il peso dell'arco corrente, NaN se non è pesato
+         */
+        public double weight() {
+            checkCurrent();
+            return current.getWeight();
+        }
+
+        /**
+         * @return l'oggetto arco corrente, così come memorizzato nella matrice
+         */
+        public GraphEdge<L> edge() {
+            checkCurrent();
+            return current;
+        }
+
+        //Metodo privato: controllo che il cursore sia posizionato su un arco.
+        private void checkCurrent() {
+            if (current == null) {
+                throw new NoSuchElementException("Il cursore non è posizionato su un arco.");
+            }
+        }
+    }
+
+    /*
+     * Arco memorizzato nella matrice tra i nodi di indice i e j, null se non ci
+     * sono archi, in tempo costante. Usato da GraphIndex per restituire gli
+     * oggetti arco del grafo agli algoritmi che lavorano sugli indici.
+     */
+    GraphEdge<L> edgeAt(int i, int j) {
+        checkIndex(i);
+        checkIndex(j);
+        return matrix.get(i).get(j);
+    }
+
+    //Metodo privato: controllo dell'indice di un nodo.
+    private void checkIndex(int i) {
+        if (i < 0 || i > this.nodeCount() - 1) {
+            throw new IndexOutOfBoundsException("L'indice passato non corrisponde a nessun nodo o è fuori dai limiti dell'intervallo.");
+        }
     }
 
     //Metodo interno findEdge:
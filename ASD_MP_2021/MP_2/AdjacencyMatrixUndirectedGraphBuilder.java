@@ -0,0 +1,302 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+
+/**
+ * Classe che costruisce in blocco un {@link AdjacencyMatrixUndirectedGraph}.
+ *
+ * Inserire V nodi uno alla volta con addNode costa O(V^2) di crescite
+ * successive delle ArrayList della matrice e ogni arco aggiunto tramite
+ * etichette paga una ricerca lineare del nodo. Il builder invece raccoglie
+ * etichette e archi in array primitivi, con una mappa etichetta -> indice, e
+ * nel metodo {@link #build()} dimensiona ogni struttura del grafo una sola
+ * volta e scrive la matrice in un solo passaggio.
+ *
+ * Gli indici dei nodi del grafo costruito sono quelli restituiti da
+ * {@link #addNode(Object)}, cioè l'ordine di inserimento nel builder, come se i
+ * nodi fossero stati aggiunti al grafo nello stesso ordine. Se lo stesso arco
+ * (cioè la stessa coppia non ordinata di nodi) viene aggiunto più volte vale la
+ * prima occorrenza, come accade con addEdge del grafo.
+ *
+ * Se il numero di archi supera {@link #PARALLEL_THRESHOLD} la creazione degli
+ * archi e la scrittura delle righe della matrice avvengono in parallelo: gli
+ * archi vengono prima raggruppati per riga (mantenendo l'ordine di
+ * inserimento) e ogni riga viene poi scritta da un solo thread, per cui non
+ * servono sincronizzazioni.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class AdjacencyMatrixUndirectedGraphBuilder<L> {
+
+    //Numero di archi oltre il quale l'inserimento avviene in parallelo.
+    public static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    //Etichette dei nodi nell'ordine di inserimento.
+    private final ArrayList<L> labels;
+
+    //Associazione etichetta -> indice.
+    private final Map<L, Integer> labelsIndex;
+
+    //Archi: estremi e peso (NaN se non pesato).
+    private int[] from;
+    private int[] to;
+    private double[] weights;
+
+    //Numero di archi raccolti.
+    private int edges;
+
+    /**
+     * Crea un builder vuoto.
+     */
+    public AdjacencyMatrixUndirectedGraphBuilder() {
+        this(16, 16);
+    }
+
+    /**
+     * Crea un builder vuoto dimensionato per il numero di nodi e di archi
+     * previsto.
+     *
+     * @param expectedNodes
+     *                          numero di nodi previsto
+     * @param expectedEdges
+     *                          numero di archi previsto
+     * @throws IllegalArgumentException
+     *                                      se uno dei due numeri è negativo
+     */
+    public AdjacencyMatrixUndirectedGraphBuilder(int expectedNodes, int expectedEdges) {
+        //Controllo se le dimensioni sono negative.
+        if (expectedNodes < 0 || expectedEdges < 0) {
+            throw new IllegalArgumentException("Le dimensioni previste non possono essere negative.");
+        }
+        this.labels = new ArrayList<>(expectedNodes);
+        this.labelsIndex = new HashMap<>(Math.max(16, (int) (expectedNodes / 0.75f) + 1));
+        this.from = new int[Math.max(1, expectedEdges)];
+        this.to = new int[Math.max(1, expectedEdges)];
+        this.weights = new double[Math.max(1, expectedEdges)];
+        this.edges = 0;
+    }
+
+    /**
+     * Aggiunge un nodo, se non è già presente.
+     *
+     * @param label
+     *                  l'etichetta del nodo
+     * @return l'indice che il nodo avrà nel grafo costruito
+     * @throws NullPointerException
+     *                                  se l'etichetta è nulla
+     */
+    public int addNode(L label) {
+        //Controllo se label è nullo.
+        if (label == null) {
+            throw new NullPointerException("Il parametro passato è nullo");
+        }
+        Integer indice = labelsIndex.get(label);
+        if (indice != null) {
+            return indice;
+        }
+        labelsIndex.put(label, labels.size());
+        labels.add(label);
+        return labels.size() - 1;
+    }
+
+    /**
+     * Aggiunge tutti i nodi di una collezione di etichette.
+     *
+     * @param labels
+     *                   le etichette dei nodi
+     * @return questo builder
+     * @throws NullPointerException
+     *                                  se la collezione o una delle etichette
+     *                                  è nulla
+     */
+    public AdjacencyMatrixUndirectedGraphBuilder<L> addNodes(Collection<? extends L> labels) {
+        for (L label : labels) {
+            addNode(label);
+        }
+        return this;
+    }
+
+    /**
+     * Aggiunge un arco non pesato tra due nodi, aggiungendo i nodi se non sono
+     * ancora presenti.
+     *
+     * @param label1
+     *                   etichetta del primo nodo
+     * @param label2
+     *                   etichetta del secondo nodo
+     * @return questo builder
+     * @throws NullPointerException
+     *                                  se almeno una delle due etichette è
+     *                                  nulla
+     */
+    public AdjacencyMatrixUndirectedGraphBuilder<L> addEdge(L label1, L label2) {
+        return addWeightedEdge(label1, label2, Double.NaN);
+    }
+
+    /**
+     * Aggiunge un arco pesato tra due nodi, aggiungendo i nodi se non sono
+     * ancora presenti.
+     *
+     * @param label1
+     *                   etichetta del primo nodo
+     * @param label2
+     *                   etichetta del secondo nodo
+     * @param weight
+     *                   peso dell'arco
+     * @return questo builder
+     * @throws NullPointerException
+     *                                  se almeno una delle due etichette è
+     *                                  nulla
+     */
+    public AdjacencyMatrixUndirectedGraphBuilder<L> addWeightedEdge(L label1, L label2, double weight) {
+        //Controllo se almeno una delle due etichette è nulla:
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("Almeno una delle due etichette è nulla.");
+        }
+        append(addNode(label1), addNode(label2), weight);
+        return this;
+    }
+
+    /**
+     * Aggiunge un arco non pesato tra due nodi già inseriti, indicati con il
+     * loro indice.
+     *
+     * @param i
+     *              indice del primo nodo
+     * @param j
+     *              indice del secondo nodo
+     * @return questo builder
+     * @throws IndexOutOfBoundsException
+     *                                       se almeno uno dei due indici non
+     *                                       corrisponde a nessun nodo
+     */
+    public AdjacencyMatrixUndirectedGraphBuilder<L> addEdge(int i, int j) {
+        return addWeightedEdge(i, j, Double.NaN);
+    }
+
+    /**
+     * Aggiunge un arco pesato tra due nodi già inseriti, indicati con il loro
+     * indice.
+     *
+     * @param i
+     *                   indice del primo nodo
+     * @param j
+     *                   indice del secondo nodo
+     * @param weight
+     *                   peso dell'arco
+     * @return questo builder
+     * @throws IndexOutOfBoundsException
+     *                                       se almeno uno dei due indici non
+     *                                       corrisponde a nessun nodo
+     */
+    public AdjacencyMatrixUndirectedGraphBuilder<L> addWeightedEdge(int i, int j, double weight) {
+        //Controllo gli indici:
+        if (i < 0 || i >= labels.size() || j < 0 || j >= labels.size()) {
+            throw new IndexOutOfBoundsException("L'indice passato non corrisponde a nessun nodo o è fuori dai limiti dell'intervallo.");
+        }
+        append(i, j, weight);
+        return this;
+    }
+
+    /**
+     * @return il numero di nodi raccolti finora
+     */
+    public int nodeCount() {
+        return labels.size();
+    }
+
+    /**
+     * @return il numero di archi raccolti finora, duplicati compresi
+     */
+    public int edgeCount() {
+        return edges;
+    }
+
+    /**
+     * Costruisce il grafo. Il builder non viene modificato e può essere usato
+     * per costruire altri grafi.
+     *
+     * @return un nuovo grafo con i nodi e gli archi raccolti
+     */
+    public AdjacencyMatrixUndirectedGraph<L> build() {
+        int n = labels.size();
+        List<GraphNode<L>> nodi = new ArrayList<>(n);
+        for (L label : labels) {
+            nodi.add(new GraphNode<>(label));
+        }
+        AdjacencyMatrixUndirectedGraph<L> g = new AdjacencyMatrixUndirectedGraph<>(nodi);
+        boolean parallelo = edges >= PARALLEL_THRESHOLD;
+        //Creo gli oggetti arco, ognuno è indipendente dagli altri:
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        GraphEdge<L>[] archi = (GraphEdge<L>[]) new GraphEdge[edges];
+        range(edges, parallelo).forEach(k -> archi[k] = Double.isNaN(weights[k])
+                ? new GraphEdge<>(nodi.get(from[k]), nodi.get(to[k]), false)
+                : new GraphEdge<>(nodi.get(from[k]), nodi.get(to[k]), false, weights[k]));
+        //Raggruppo gli archi per riga (counting sort stabile, un cappio conta una volta):
+        int[] inizio = new int[n + 1];
+        for (int k = 0; k < edges; k++) {
+            inizio[from[k] + 1]++;
+            if (from[k] != to[k]) {
+                inizio[to[k] + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            inizio[i + 1] += inizio[i];
+        }
+        int[] posizione = Arrays.copyOf(inizio, n);
+        int[] perRiga = new int[inizio[n]];
+        for (int k = 0; k < edges; k++) {
+            perRiga[posizione[from[k]]++] = k;
+            if (from[k] != to[k]) {
+                perRiga[posizione[to[k]]++] = k;
+            }
+        }
+        /*
+         * Ogni riga è scritta da un solo thread. Le occorrenze di una stessa
+         * coppia compaiono nello stesso ordine nelle due righe, per cui entrambe
+         * le celle ricevono lo stesso oggetto (la prima occorrenza).
+         */
+        range(n, parallelo).forEach(i -> {
+            ArrayList<GraphEdge<L>> riga = g.matrix.get(i);
+            for (int p = inizio[i]; p < inizio[i + 1]; p++) {
+                int k = perRiga[p];
+                int j = from[k] == i ? to[k] : from[k];
+                if (riga.get(j) == null) {
+                    riga.set(j, archi[k]);
+                }
+            }
+        });
+        //Gli archi effettivi sono quelli finiti nella matrice:
+        g.arch = new HashSet<>(Math.max(16, (int) (edges / 0.75f) + 1));
+        for (int k = 0; k < edges; k++) {
+            if (g.matrix.get(from[k]).get(to[k]) == archi[k]) {
+                g.arch.add(archi[k]);
+            }
+        }
+        return g;
+    }
+
+    //Metodo privato: accoda un arco agli array, raddoppiandoli se pieni.
+    private void append(int i, int j, double weight) {
+        if (edges == from.length) {
+            from = Arrays.copyOf(from, 2 * edges);
+            to = Arrays.copyOf(to, 2 * edges);
+            weights = Arrays.copyOf(weights, 2 * edges);
+        }
+        from[edges] = i;
+        to[edges] = j;
+        weights[edges] = weight;
+        edges++;
+    }
+
+    //Metodo privato: intervallo [0, n), parallelo se richiesto.
+    private static IntStream range(int n, boolean parallelo) {
+        IntStream stream = IntStream.range(0, n);
+        return parallelo ? stream.parallel() : stream;
+    }
+}
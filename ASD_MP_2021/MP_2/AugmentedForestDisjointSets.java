@@ -0,0 +1,170 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.util.function.Function;
+
+
+/**
+ * Foresta di insiemi disgiunti in cui la radice di ogni albero conserva un
+ * valore aggregato sugli elementi del suo insieme, calcolato con un
+ * {@link Monoid}: ad esempio il numero di elementi, la somma dei pesi o
+ * l'etichetta minima. Ogni elemento riceve un valore in makeSet; quando due
+ * insiemi vengono uniti, i valori delle due radici vengono combinati in O(1)
+ * nella nuova radice. {@link #aggregateOf(Object)} costa quindi un solo
+ * findSet, invece della scansione di tutti gli elementi di
+ * {@link #getCurrentElementsOfSetContaining(Object)}.
+ *
+ * Find-set, unione per rango e compressione del cammino sono quelli di
+ * {@link ForestDisjointSets}.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <E>
+ *                il tipo degli elementi degli insiemi disgiunti
+ * @param <A>
+ *                il tipo dei valori aggregati
+ */
+public class AugmentedForestDisjointSets<E, A> extends ForestDisjointSets<E> {
+
+    /*
+     * Nodo che conserva anche un valore: nelle radici è il valore aggregato
+     * dell'intero insieme, negli altri nodi è null.
+     */
+    protected static class AggregateNode<E, A> extends Node<E> {
+        protected A aggregate;
+
+        protected AggregateNode(E item, A aggregate) {
+            super(item);
+            this.aggregate = aggregate;
+        }
+    }
+
+    //Il monoide con cui combinare i valori.
+    private final Monoid<A> monoid;
+
+    //Valore iniziale di un elemento inserito con makeSet(e).
+    private final Function<? super E, ? extends A> initialValue;
+
+    //Valore del nodo in costruzione, passato da makeSet(e, value) a newNode.
+    private A pending;
+
+    /**
+     * Costruisce una foresta vuota in cui gli elementi inseriti con
+     * {@link #makeSet(Object)} hanno come valore quello dato dalla funzione.
+     *
+     * @param monoid
+     *                         il monoide con cui combinare i valori
+     * @param initialValue
+     *                         il valore di ogni elemento
+     * @throws NullPointerException
+     *                                  se almeno uno dei parametri è nullo
+     */
+    public AugmentedForestDisjointSets(Monoid<A> monoid, Function<? super E, ? extends A> initialValue) {
+        //Controllo se almeno uno dei parametri è nullo.
+        if (monoid == null || initialValue == null) {
+            throw new NullPointerException("Almeno uno dei parametri è nullo.");
+        }
+        this.monoid = monoid;
+        this.initialValue = initialValue;
+    }
+
+    /**
+     * Costruisce una foresta vuota in cui gli elementi inseriti con
+     * {@link #makeSet(Object)} hanno come valore l'elemento neutro del
+     * monoide.
+     *
+     * @param monoid
+     *                   il monoide con cui combinare i valori
+     * @throws NullPointerException
+     *                                  se il monoide è nullo
+     */
+    public AugmentedForestDisjointSets(Monoid<A> monoid) {
+        this(monoid, e -> monoid.identity());
+    }
+
+    /**
+     * Crea una foresta che conta gli elementi di ogni insieme.
+     *
+     * @param <E>
+     *                il tipo degli elementi
+     * @return la foresta, in cui {@link #aggregateOf(Object)} è la dimensione
+     *         dell'insieme
+     */
+    public static <E> AugmentedForestDisjointSets<E, Integer> withSizes() {
+        return new AugmentedForestDisjointSets<>(Monoid.intSum(), e -> 1);
+    }
+
+    /**
+     * Inserisce un elemento in un nuovo insieme, con il valore dato.
+     *
+     * @param e
+     *                  l'elemento
+     * @param value
+     *                  il valore dell'elemento
+     * @throws NullPointerException
+     *                                      se l'elemento è nullo
+     * @throws IllegalArgumentException
+     *                                      se l'elemento è già presente
+     */
+    public void makeSet(E e, A value) {
+        pending = value;
+        try {
+            super.makeSet(e);
+        } finally {
+            pending = null;
+        }
+    }
+
+    /*
+     * Inserisce un elemento con il valore dato dalla funzione del costruttore.
+     */
+    @Override
+    public void makeSet(E e) {
+        //Controllo se l'elemento passato è nullo.
+        if (e == null) {
+            throw new NullPointerException("L'elemento passato è nullo.");
+        }
+        makeSet(e, initialValue.apply(e));
+    }
+
+    /**
+     * Restituisce il valore aggregato dell'insieme che contiene l'elemento.
+     * Costa una ricerca della radice, che non viene notificata all'ascoltatore
+     * come findSet.
+     *
+     * @param e
+     *              l'elemento
+     * @return il valore aggregato del suo insieme
+     * @throws NullPointerException
+     *                                      se l'elemento è nullo
+     * @throws IllegalArgumentException
+     *                                      se l'elemento non è presente
+     */
+    @SuppressWarnings("unchecked")
+    public A aggregateOf(E e) {
+        //Controllo se l'elemento passato è nullo.
+        if (e == null) {
+            throw new NullPointerException("L'elemento passato è nullo.");
+        }
+        Node<E> radice = rootOf(e);
+        //Controllo se l'elemento è presente.
+        if (radice == null) {
+            throw new IllegalArgumentException("L'elemento passato non è contenuto in nessun insieme disgiunto.");
+        }
+        return ((AggregateNode<E, A>) radice).aggregate;
+    }
+
+    @Override
+    protected Node<E> newNode(E e) {
+        return new AggregateNode<>(e, pending);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void linked(Node<E> root, Node<E> child) {
+        AggregateNode<E, A> radice = (AggregateNode<E, A>) root;
+        AggregateNode<E, A> figlio = (AggregateNode<E, A>) child;
+        radice.aggregate = monoid.combine(radice.aggregate, figlio.aggregate);
+        //Il figlio non è più una radice: rilascio il suo valore.
+        figlio.aggregate = null;
+    }
+}
@@ -0,0 +1,652 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.util.*;
+
+
+/**
+ * Classe che implementa un grafo non orientato e non pesato tramite una
+ * matrice di adiacenza di bit. Non sono accettate etichette dei nodi null e non
+ * sono accettate etichette duplicate nei nodi (che in quel caso sono lo stesso
+ * nodo).
+ *
+ * I nodi sono indicizzati da 0 a nodeCount() - 1 seguendo l'ordine del loro
+ * inserimento, esattamente come in {@link AdjacencyMatrixUndirectedGraph}: dopo
+ * la cancellazione di un nodo gli indici dei nodi successivi vengono
+ * decrementati di uno.
+ *
+ * A differenza di {@link AdjacencyMatrixUndirectedGraph}, ogni riga della
+ * matrice non contiene riferimenti a oggetti GraphEdge<L> ma è un array di
+ * long in cui il bit j della riga i vale 1 se e solo se i nodi i e j sono
+ * collegati da un arco. La matrice occupa quindi 1/64 della memoria di una
+ * matrice di riferimenti, il test di adiacenza è il controllo di un singolo bit
+ * e le operazioni sugli intorni (vicini comuni, unione degli intorni) vengono
+ * eseguite con AND/OR su 64 nodi alla volta. Gli oggetti GraphEdge<L>
+ * restituiti dai metodi di lettura vengono creati al momento della richiesta.
+ *
+ * Il grafo non è pesato: i metodi che aggiungono archi pesati lanciano
+ * IllegalArgumentException.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class BitMatrixUndirectedGraph<L> extends Graph<L> {
+
+    /*
+     * Le seguenti variabili istanza sono protected al solo scopo di agevolare
+     * il JUnit testing
+     */
+
+    /*
+     * Insieme dei nodi e associazione di ogni nodo con il proprio indice nella
+     * matrice di adiacenza
+     */
+    protected Map<GraphNode<L>, Integer> nodesIndex;
+
+    //Associazione inversa indice -> nodo, permette di ottenere un nodo in O(1).
+    protected ArrayList<GraphNode<L>> nodes;
+
+    //Associazione etichetta -> nodo, evita la scansione di tutti i nodi.
+    protected Map<L, GraphNode<L>> labels;
+
+    /*
+     * Matrice di adiacenza di bit: la riga i è un array di long in cui il bit j
+     * (parola j / 64, posizione j % 64) è 1 se esiste l'arco {i, j}.
+     */
+    protected ArrayList<long[]> rows;
+
+    //Numero di parole (long) di ogni riga.
+    private int words;
+
+    //Numero di archi presenti.
+    private int edges;
+
+    /**
+     * Crea un grafo vuoto.
+     */
+    public BitMatrixUndirectedGraph() {
+        this.clear();
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodes.size();
+    }
+
+    @Override
+    public int edgeCount() {
+        return edges;
+    }
+
+    @Override
+    public void clear() {
+        this.nodesIndex = new HashMap<GraphNode<L>, Integer>();
+        this.nodes = new ArrayList<GraphNode<L>>();
+        this.labels = new HashMap<L, GraphNode<L>>();
+        this.rows = new ArrayList<long[]>();
+        this.words = 1;
+        this.edges = 0;
+    }
+
+    @Override
+    public boolean isDirected() {
+        //Torno direttamente false, questo grafo non è orientato.
+        return false;
+    }
+
+    /*
+     * Gli indici dei nodi vanno assegnati nell'ordine di inserimento a partire
+     * da zero
+     */
+    @Override
+    public boolean addNode(GraphNode<L> node) {
+        //Controllo se node è nullo.
+        if (node == null) {
+            throw new NullPointerException("Il nodo passato è null");
+        }
+        //Controllo se è già presente quel nodo.
+        if (nodesIndex.containsKey(node)) {
+            return false;
+        }
+        int newIndice = nodes.size();
+        //Se le righe sono piene raddoppio il numero di parole di ogni riga:
+        if (newIndice == words * Long.SIZE) {
+            words *= 2;
+            for (int i = 0; i < rows.size(); i++) {
+                rows.set(i, Arrays.copyOf(rows.get(i), words));
+            }
+        }
+        nodesIndex.put(node, newIndice);
+        nodes.add(node);
+        labels.put(node.getLabel(), node);
+        rows.add(new long[words]);
+        return true;
+    }
+
+    @Override
+    public boolean addNode(L label) {
+        //Controllo se label è nullo.
+        if (label == null) {
+            throw new NullPointerException("Il parametro passato è nullo");
+        }
+        return addNode(new GraphNode<>(label));
+    }
+
+    /*
+     * Gli indici dei nodi il cui valore sia maggiore dell'indice del nodo da
+     * cancellare devono essere decrementati di uno dopo la cancellazione del
+     * nodo
+     */
+    @Override
+    public void removeNode(GraphNode<L> node) {
+        //Controllo se node è nullo.
+        if (node == null) {
+            throw new NullPointerException("Il nodo passato è null.");
+        }
+        //Controllo se il Grafo contiene node.
+        if (!nodesIndex.containsKey(node)) {
+            throw new IllegalArgumentException("Il nodo non esiste in questo grafo.");
+        }
+        int indiceRimosso = nodesIndex.remove(node);
+        //Tolgo gli archi del nodo dal conteggio (il cappio, se c'è, è un solo bit).
+        edges -= degreeOf(indiceRimosso);
+        rows.remove(indiceRimosso);
+        nodes.remove(indiceRimosso);
+        labels.remove(node.getLabel());
+        //Aggiorno gli indici dei nodi successivi a quello rimosso:
+        for (int i = indiceRimosso; i < nodes.size(); i++) {
+            nodesIndex.put(nodes.get(i), i);
+        }
+        //In ogni riga elimino la colonna rimossa facendo scorrere i bit successivi:
+        for (long[] riga : rows) {
+            removeBit(riga, indiceRimosso);
+        }
+    }
+
+    @Override
+    public void removeNode(L label) {
+        GraphNode<L> node = this.getNode(label);
+        //Controllo se è nullo:
+        if (node == null) {
+            throw new IllegalArgumentException("L'etichetta passata non corrisponde a nessun nodo.");
+        }
+        removeNode(node);
+    }
+
+    @Override
+    public void removeNode(int i) {
+        this.removeNode(this.getNode(i));
+    }
+
+    @Override
+    public GraphNode<L> getNode(GraphNode<L> node) {
+        //Controllo se il nodo è nullo:
+        if (node == null) {
+            throw new NullPointerException("Il nodo passato è nullo.");
+        }
+        return nodesIndex.containsKey(node) ? node : null;
+    }
+
+    @Override
+    public GraphNode<L> getNode(L label) {
+        //Controllo se l'etichetta passata è nulla.
+        if (label == null) {
+            throw new NullPointerException("L'etichetta è nulla.");
+        }
+        return labels.get(label);
+    }
+
+    @Override
+    public GraphNode<L> getNode(int i) {
+        checkIndex(i);
+        return nodes.get(i);
+    }
+
+    @Override
+    public int getNodeIndexOf(GraphNode<L> node) {
+        //Controllo se il nodo passato è nullo:
+        if (node == null) {
+            throw new NullPointerException("Il nodo passato è null.");
+        }
+        Integer indice = nodesIndex.get(node);
+        //Controllo se la mappa contiene il nodo:
+        if (indice == null) {
+            throw new IllegalArgumentException("Il nodo passato non esiste in questo grafo.");
+        }
+        return indice;
+    }
+
+    @Override
+    public int getNodeIndexOf(L label) {
+        GraphNode<L> node = this.getNode(label);
+        //Controllo se è nullo:
+        if (node == null) {
+            throw new IllegalArgumentException("Il nodo è nullo.");
+        }
+        return this.getNodeIndexOf(node);
+    }
+
+    @Override
+    public Set<GraphNode<L>> getNodes() {
+        return Collections.unmodifiableSet(nodesIndex.keySet());
+    }
+
+    @Override
+    public boolean addEdge(GraphEdge<L> edge) {
+        //Controllo se l'arco passato è nullo:
+        if (edge == null) {
+            throw new NullPointerException("L'arco passato è nullo.");
+        }
+        //Controllo se è orientato:
+        if (edge.isDirected()) {
+            throw new IllegalArgumentException("L'arco è orientato in un grafo non orientato.");
+        }
+        //Controllo se è pesato:
+        if (edge.hasWeight()) {
+            throw new IllegalArgumentException("L'arco è pesato in un grafo non pesato.");
+        }
+        int iUno = indexOfEdgeNode(edge.getNode1());
+        int iDue = indexOfEdgeNode(edge.getNode2());
+        //Se il bit è già a 1 l'arco esiste già:
+        if (isAdjacent(iUno, iDue)) {
+            return false;
+        }
+        setBit(rows.get(iUno), iDue);
+        setBit(rows.get(iDue), iUno);
+        edges++;
+        return true;
+    }
+
+    @Override
+    public boolean addEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        //Controllo se i due nodi sono nulli:
+        if (node1 == null || node2 == null) {
+            throw new NullPointerException("Almeno uno dei due nodi è nullo.");
+        }
+        return this.addEdge(new GraphEdge<>(node1, node2, false));
+    }
+
+    @Override
+    public boolean addWeightedEdge(GraphNode<L> node1, GraphNode<L> node2, double weight) {
+        throw new IllegalArgumentException("Il grafo non è pesato.");
+    }
+
+    @Override
+    public boolean addEdge(L label1, L label2) {
+        //Controllo se almeno una delle due etichette è nulla:
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("Almeno una delle due etichette è nulla.");
+        }
+        return this.addEdge(this.getNode(label1), this.getNode(label2));
+    }
+
+    @Override
+    public boolean addWeightedEdge(L label1, L label2, double weight) {
+        throw new IllegalArgumentException("Il grafo non è pesato.");
+    }
+
+    @Override
+    public boolean addEdge(int i, int j) {
+        checkIndex(i);
+        checkIndex(j);
+        //Se il bit è già a 1 l'arco esiste già:
+        if (isAdjacent(i, j)) {
+            return false;
+        }
+        setBit(rows.get(i), j);
+        setBit(rows.get(j), i);
+        edges++;
+        return true;
+    }
+
+    @Override
+    public boolean addWeightedEdge(int i, int j, double weight) {
+        throw new IllegalArgumentException("Il grafo non è pesato.");
+    }
+
+    @Override
+    public void removeEdge(GraphEdge<L> edge) {
+        //Controllo se l'arco passato è nullo:
+        if (edge == null) {
+            throw new NullPointerException("L'arco passato è nullo.");
+        }
+        int iUno = indexOfEdgeNode(edge.getNode1());
+        int iDue = indexOfEdgeNode(edge.getNode2());
+        this.removeEdge(iUno, iDue);
+    }
+
+    @Override
+    public void removeEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        //Controllo se almeno uno dei due nodi è nullo:
+        if (node1 == null || node2 == null) {
+            throw new NullPointerException("Almeno uno dei due nodi è nullo.");
+        }
+        this.removeEdge(new GraphEdge<>(node1, node2, false));
+    }
+
+    @Override
+    public void removeEdge(L label1, L label2) {
+        //Controllo se almeno una delle due etichette è nulla:
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("Almeno una delle due etichette è nulla.");
+        }
+        this.removeEdge(this.getNode(label1), this.getNode(label2));
+    }
+
+    @Override
+    public void removeEdge(int i, int j) {
+        //Controllo se l'arco esiste (il controllo degli indici è fatto da isAdjacent):
+        if (!isAdjacent(i, j)) {
+            throw new IllegalArgumentException("L'arco non esiste.");
+        }
+        clearBit(rows.get(i), j);
+        clearBit(rows.get(j), i);
+        edges--;
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(GraphEdge<L> edge) {
+        //Controllo se l'arco passato è nullo:
+        if (edge == null) {
+            throw new NullPointerException("L'arco passato è nullo.");
+        }
+        int iUno = indexOfEdgeNode(edge.getNode1());
+        int iDue = indexOfEdgeNode(edge.getNode2());
+        return isAdjacent(iUno, iDue) ? new GraphEdge<>(nodes.get(iUno), nodes.get(iDue), false) : null;
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        //Controllo se almeno uno dei due nodi è nullo:
+        if (node1 == null || node2 == null) {
+            throw new NullPointerException("Almeno uno dei due nodi è nullo.");
+        }
+        return this.getEdge(new GraphEdge<>(node1, node2, false));
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(L label1, L label2) {
+        //Controllo se almeno una delle due etichette è nulla:
+        if (label1 == null || label2 == null) {
+            throw new NullPointerException("Almeno una delle due etichette è nulla.");
+        }
+        return this.getEdge(this.getNode(label1), this.getNode(label2));
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(int i, int j) {
+        return isAdjacent(i, j) ? new GraphEdge<>(nodes.get(i), nodes.get(j), false) : null;
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(GraphNode<L> node) {
+        return this.getAdjacentNodesOf(this.getNodeIndexOf(node));
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(L label) {
+        //Controllo se l'etichetta passata è nulla:
+        if (label == null) {
+            throw new NullPointerException("L'etichetta passata è nulla: ");
+        }
+        return this.getAdjacentNodesOf(this.getNode(label));
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(int i) {
+        checkIndex(i);
+        return nodesOf(rows.get(i));
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(GraphNode<L> node) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(L label) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(int i) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(GraphNode<L> node) {
+        return this.getEdgesOf(this.getNodeIndexOf(node));
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(L label) {
+        return this.getEdgesOf(this.getNode(label));
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(int i) {
+        checkIndex(i);
+        long[] riga = rows.get(i);
+        GraphNode<L> nodo = nodes.get(i);
+        Set<GraphEdge<L>> set = new HashSet<>();
+        //Scorro solo i bit a 1 della riga:
+        for (int w = 0; w < words; w++) {
+            long parola = riga[w];
+            while (parola != 0) {
+                int j = w * Long.SIZE + Long.numberOfTrailingZeros(parola);
+                set.add(new GraphEdge<>(nodo, nodes.get(j), false));
+                parola &= parola - 1;
+            }
+        }
+        return set;
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(GraphNode<L> node) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(L label) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(int i) {
+        throw new UnsupportedOperationException(
+                "Operazione non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdges() {
+        Set<GraphEdge<L>> set = new HashSet<>();
+        //Per ogni riga considero solo le colonne j >= i, ogni arco compare una volta.
+        for (int i = 0; i < nodes.size(); i++) {
+            long[] riga = rows.get(i);
+            for (int w = i / Long.SIZE; w < words; w++) {
+                long parola = riga[w];
+                if (w == i / Long.SIZE) {
+                    parola &= -1L << (i % Long.SIZE);
+                }
+                while (parola != 0) {
+                    int j = w * Long.SIZE + Long.numberOfTrailingZeros(parola);
+                    set.add(new GraphEdge<>(nodes.get(i), nodes.get(j), false));
+                    parola &= parola - 1;
+                }
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Controlla se due nodi sono adiacenti leggendo un solo bit della matrice.
+     *
+     * @param i
+     *              indice del primo nodo
+     * @param j
+     *              indice del secondo nodo
+     * @return true se esiste l'arco {i, j}
+     * @throws IndexOutOfBoundsException
+     *                                       se almeno uno dei due indici non
+     *                                       corrisponde a nessun nodo
+     */
+    public boolean isAdjacent(int i, int j) {
+        checkIndex(i);
+        checkIndex(j);
+        return (rows.get(i)[j >>> 6] & (1L << j)) != 0;
+    }
+
+    /**
+     * Restituisce il grado di un nodo contando i bit a 1 della sua riga, 64
+     * nodi alla volta.
+     *
+     * @param i
+     *              indice del nodo
+     * @return il numero di nodi adiacenti al nodo i
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non corrisponde a
+     *                                       nessun nodo
+     */
+    public int degreeOf(int i) {
+        checkIndex(i);
+        long[] riga = rows.get(i);
+        int grado = 0;
+        for (int w = 0; w < words; w++) {
+            grado += Long.bitCount(riga[w]);
+        }
+        return grado;
+    }
+
+    /**
+     * Conta i vicini comuni a due nodi tramite l'AND delle due righe.
+     *
+     * @param i
+     *              indice del primo nodo
+     * @param j
+     *              indice del secondo nodo
+     * @return il numero di nodi adiacenti sia a i che a j
+     * @throws IndexOutOfBoundsException
+     *                                       se almeno uno dei due indici non
+     *                                       corrisponde a nessun nodo
+     */
+    public int countCommonNeighboursOf(int i, int j) {
+        checkIndex(i);
+        checkIndex(j);
+        long[] rigaUno = rows.get(i);
+        long[] rigaDue = rows.get(j);
+        int comuni = 0;
+        for (int w = 0; w < words; w++) {
+            comuni += Long.bitCount(rigaUno[w] & rigaDue[w]);
+        }
+        return comuni;
+    }
+
+    /**
+     * Restituisce i vicini comuni a due nodi tramite l'AND delle due righe.
+     *
+     * @param i
+     *              indice del primo nodo
+     * @param j
+     *              indice del secondo nodo
+     * @return l'insieme dei nodi adiacenti sia a i che a j
+     * @throws IndexOutOfBoundsException
+     *                                       se almeno uno dei due indici non
+     *                                       corrisponde a nessun nodo
+     */
+    public Set<GraphNode<L>> getCommonNeighboursOf(int i, int j) {
+        checkIndex(i);
+        checkIndex(j);
+        long[] rigaUno = rows.get(i);
+        long[] rigaDue = rows.get(j);
+        long[] comuni = new long[words];
+        for (int w = 0; w < words; w++) {
+            comuni[w] = rigaUno[w] & rigaDue[w];
+        }
+        return nodesOf(comuni);
+    }
+
+    /**
+     * Conta i nodi adiacenti ad almeno uno di due nodi tramite l'OR delle due
+     * righe.
+     *
+     * @param i
+     *              indice del primo nodo
+     * @param j
+     *              indice del secondo nodo
+     * @return la cardinalità dell'unione degli intorni di i e di j
+     * @throws IndexOutOfBoundsException
+     *                                       se almeno uno dei due indici non
+     *                                       corrisponde a nessun nodo
+     */
+    public int countNeighbourhoodUnionOf(int i, int j) {
+        checkIndex(i);
+        checkIndex(j);
+        long[] rigaUno = rows.get(i);
+        long[] rigaDue = rows.get(j);
+        int unione = 0;
+        for (int w = 0; w < words; w++) {
+            unione += Long.bitCount(rigaUno[w] | rigaDue[w]);
+        }
+        return unione;
+    }
+
+    //Metodo privato: torna i nodi corrispondenti ai bit a 1 di una riga.
+    private Set<GraphNode<L>> nodesOf(long[] riga) {
+        Set<GraphNode<L>> set = new HashSet<>();
+        for (int w = 0; w < words; w++) {
+            long parola = riga[w];
+            while (parola != 0) {
+                set.add(nodes.get(w * Long.SIZE + Long.numberOfTrailingZeros(parola)));
+                parola &= parola - 1;
+            }
+        }
+        return set;
+    }
+
+    //Metodo privato: indice di un nodo di un arco, con i controlli del caso.
+    private int indexOfEdgeNode(GraphNode<L> node) {
+        Integer indice = nodesIndex.get(node);
+        if (indice == null) {
+            throw new IllegalArgumentException("Almeno uno dei due nodi specificati non esiste.");
+        }
+        return indice;
+    }
+
+    //Metodo privato: controllo dell'indice di un nodo.
+    private void checkIndex(int i) {
+        if (i < 0 || i > this.nodeCount() - 1) {
+            throw new IndexOutOfBoundsException("L'indice passato non corrisponde a nessun nodo o è fuori dai limiti dell'intervallo.");
+        }
+    }
+
+    private static void setBit(long[] riga, int j) {
+        riga[j >>> 6] |= 1L << j;
+    }
+
+    private static void clearBit(long[] riga, int j) {
+        riga[j >>> 6] &= ~(1L << j);
+    }
+
+    /*
+     * Elimina il bit in posizione j facendo scorrere di una posizione verso il
+     * basso tutti i bit successivi, parola per parola.
+     */
+    private static void removeBit(long[] riga, int j) {
+        int w = j >>> 6;
+        long parola = riga[w];
+        long bassi = parola & ((1L << j) - 1);
+        long alti = (parola >>> 1) & ~((1L << j) - 1);
+        riga[w] = bassi | alti;
+        for (int k = w + 1; k < riga.length; k++) {
+            //Il bit meno significativo della parola successiva diventa il più significativo di questa.
+            riga[k - 1] |= riga[k] << 63;
+            riga[k] >>>= 1;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+
+/**
+ * Risultato immutabile del calcolo delle componenti connesse di un grafo non
+ * orientato, in forma compatta: per ogni indice di nodo l'indice della sua
+ * componente, più la dimensione di ogni componente. Le componenti sono
+ * numerate da 0 a {@code count() - 1}.
+ *
+ * Le domande "u e v sono connessi?", "in che componente è u?" e "quanto è
+ * grande la componente c?" costano O(1). La forma con insiemi di insiemi di
+ * nodi, quella restituita da
+ * {@link UndirectedGraphConnectedComponentsComputer#computeConnectedComponents(Graph)},
+ * viene costruita solo se richiesta con {@link #asSets()}, una volta sola.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class ConnectedComponents<L> {
+
+    //Nodi del grafo, nella posizione i il nodo di indice i.
+    private final GraphNode<L>[] nodes;
+
+    //Componente di ogni nodo.
+    private final int[] labels;
+
+    //Dimensione di ogni componente.
+    private final int[] sizes;
+
+    //Forma con insiemi, costruita alla prima richiesta.
+    private volatile Set<Set<GraphNode<L>>> sets;
+
+    /*
+     * Crea il risultato a partire dalle etichette calcolate: labels[i] è la
+     * componente del nodo di indice i, tra 0 e count - 1. L'array non viene
+     * copiato: chi lo passa non deve più modificarlo.
+     */
+    ConnectedComponents(GraphNode<L>[] nodes, int[] labels, int count) {
+        this.nodes = nodes;
+        this.labels = labels;
+        this.sizes = new int[count];
+        for (int i = 0; i < nodes.length; i++) {
+            sizes[labels[i]]++;
+        }
+    }
+
+    /*
+     * Crea il risultato a partire da una foresta di insiemi disgiunti sugli
+     * indici dei nodi (parent[i] == i per le radici). Le componenti sono
+     * numerate nell'ordine del loro nodo di indice minimo, come in
+     * GraphIndex.componentLabels. L'array parent viene compresso ma non
+     * riusato.
+     */
+    static <L> ConnectedComponents<L> fromForest(GraphNode<L>[] nodes, int[] parent) {
+        int n = nodes.length;
+        int[] etichette = new int[n];
+        Arrays.fill(etichette, -1);
+        int componenti = 0;
+        for (int i = 0; i < n; i++) {
+            int radice = KruskalMSP.find(parent, i);
+            if (etichette[radice] < 0) {
+                etichette[radice] = componenti++;
+            }
+            etichette[i] = etichette[radice];
+        }
+        return new ConnectedComponents<>(nodes, etichette, componenti);
+    }
+
+    /**
+     * @return il numero di componenti connesse
+     */
+    public int count() {
+        return sizes.length;
+    }
+
+    /**
+     * @return il numero di nodi del grafo su cui è stato calcolato il risultato
+     */
+    public int nodeCount() {
+        return nodes.length;
+    }
+
+    /**
+     * @param i
+     *              un indice di nodo
+     * @return il nodo di indice i
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public GraphNode<L> getNode(int i) {
+        checkIndex(i);
+        return nodes[i];
+    }
+
+    /**
+     * @param u
+     *              un indice di nodo
+     * @return l'indice della componente che contiene il nodo u
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public int componentOf(int u) {
+        checkIndex(u);
+        return labels[u];
+    }
+
+    /**
+     * @param u
+     *              un indice di nodo
+     * @param v
+     *              un indice di nodo
+     * @return true se u e v sono nella stessa componente connessa
+     * @throws IndexOutOfBoundsException
+     *                                       se almeno uno dei due indici non è
+     *                                       valido
+     */
+    public boolean connected(int u, int v) {
+        checkIndex(u);
+        checkIndex(v);
+        return labels[u] == labels[v];
+    }
+
+    /**
+     * @param c
+     *              un indice di componente
+     * @return il numero di nodi della componente c
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non corrisponde a
+     *                                       nessuna componente
+     */
+    public int sizeOf(int c) {
+        if (c < 0 || c > sizes.length - 1) {
+            throw new IndexOutOfBoundsException("L'indice passato non corrisponde a nessuna componente.");
+        }
+        return sizes[c];
+    }
+
+    /**
+     * @return una copia delle componenti di tutti i nodi, nella posizione i la
+     *         componente del nodo di indice i
+     */
+    public int[] getLabels() {
+        return labels.clone();
+    }
+
+    /**
+     * Restituisce le componenti nella stessa forma di
+     * {@link UndirectedGraphConnectedComponentsComputer#computeConnectedComponents(Graph)}.
+     * L'insieme viene costruito alla prima chiamata e poi riusato.
+     *
+     * @return l'insieme (immodificabile) delle componenti connesse, ognuna
+     *         rappresentata da un insieme (immodificabile) di nodi del grafo
+     */
+    public Set<Set<GraphNode<L>>> asSets() {
+        Set<Set<GraphNode<L>>> risultato = sets;
+        if (risultato == null) {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Set<GraphNode<L>>[] componenti = (Set<GraphNode<L>>[]) new Set[sizes.length];
+            for (int c = 0; c < sizes.length; c++) {
+                componenti[c] = new HashSet<>(Math.max(16, (int) (sizes[c] / 0.75f) + 1));
+            }
+            for (int i = 0; i < nodes.length; i++) {
+                componenti[labels[i]].add(nodes[i]);
+            }
+            Set<Set<GraphNode<L>>> esterno = new HashSet<>(Math.max(16, (int) (sizes.length / 0.75f) + 1));
+            for (Set<GraphNode<L>> componente : componenti) {
+                esterno.add(Collections.unmodifiableSet(componente));
+            }
+            risultato = Collections.unmodifiableSet(esterno);
+            sets = risultato;
+        }
+        return risultato;
+    }
+
+    //Metodo privato: controllo dell'indice di un nodo.
+    private void checkIndex(int i) {
+        if (i < 0 || i > nodes.length - 1) {
+            throw new IndexOutOfBoundsException("L'indice passato non corrisponde a nessun nodo o è fuori dai limiti dell'intervallo.");
+        }
+    }
+}
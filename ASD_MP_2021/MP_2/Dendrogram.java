@@ -0,0 +1,219 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.util.Arrays;
+
+
+/**
+ * Dendrogramma del clustering single-linkage di un grafo non orientato e
+ * pesato, calcolato da {@link KruskalMSP#computeDendrogram(Graph)}: la
+ * sequenza delle fusioni eseguite dal ciclo di Kruskal, in ordine di altezza
+ * (peso dell'arco che le ha provocate) non decrescente.
+ *
+ * I cluster sono numerati come in SciPy: i cluster da 0 a n - 1 sono i
+ * singoli nodi (con l'indice del nodo nel grafo), la fusione i crea il
+ * cluster n + i. Per ogni fusione sono conservati in array i due cluster
+ * fusi, l'altezza e il numero di nodi del nuovo cluster. Se il grafo non è
+ * connesso le fusioni sono n - c, con c il numero di componenti connesse.
+ *
+ * Il dendrogramma può essere tagliato per numero di cluster o per altezza,
+ * ottenendo le stesse etichette di
+ * {@link KruskalMSP#computeKClusters(Graph, int)} e
+ * {@link KruskalMSP#computeThresholdClusters(Graph, double)}.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class Dendrogram<L> {
+
+    //Nodi del grafo, nella posizione i il nodo di indice i.
+    private final GraphNode<L>[] nodes;
+
+    //Per ogni fusione: i due cluster fusi, l'altezza e la dimensione del nuovo cluster.
+    private final int[] left;
+    private final int[] right;
+    private final double[] height;
+    private final int[] size;
+
+    /*
+     * Crea il dendrogramma a partire dalle prime merges fusioni degli array,
+     * che non vengono copiati se hanno già la lunghezza giusta.
+     */
+    Dendrogram(GraphNode<L>[] nodes, int[] left, int[] right, double[] height, int merges) {
+        this.nodes = nodes;
+        this.left = left.length == merges ? left : Arrays.copyOf(left, merges);
+        this.right = right.length == merges ? right : Arrays.copyOf(right, merges);
+        this.height = height.length == merges ? height : Arrays.copyOf(height, merges);
+        this.size = new int[merges];
+        for (int i = 0; i < merges; i++) {
+            size[i] = clusterSize(this.left[i]) + clusterSize(this.right[i]);
+        }
+    }
+
+    /**
+     * @return il numero di nodi del grafo
+     */
+    public int nodeCount() {
+        return nodes.length;
+    }
+
+    /**
+     * @return il numero di fusioni
+     */
+    public int mergeCount() {
+        return left.length;
+    }
+
+    /**
+     * @param i
+     *              un indice di nodo
+     * @return il nodo di indice i
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public GraphNode<L> getNode(int i) {
+        if (i < 0 || i > nodes.length - 1) {
+            throw new IndexOutOfBoundsException("L'indice passato non corrisponde a nessun nodo o è fuori dai limiti dell'intervallo.");
+        }
+        return nodes[i];
+    }
+
+    /**
+     * @param i
+     *              un indice di fusione
+     * @return il primo cluster fuso
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public int left(int i) {
+        checkMerge(i);
+        return left[i];
+    }
+
+    /**
+     * @param i
+     *              un indice di fusione
+     * @return il secondo cluster fuso
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public int right(int i) {
+        checkMerge(i);
+        return right[i];
+    }
+
+    /**
+     * @param i
+     *              un indice di fusione
+     * @return l'altezza della fusione, cioè il peso dell'arco che l'ha
+     *         provocata
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public double height(int i) {
+        checkMerge(i);
+        return height[i];
+    }
+
+    /**
+     * @param i
+     *              un indice di fusione
+     * @return il numero di nodi del cluster creato dalla fusione
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public int size(int i) {
+        checkMerge(i);
+        return size[i];
+    }
+
+    /**
+     * @return una copia delle altezze di tutte le fusioni
+     */
+    public double[] getHeights() {
+        return height.clone();
+    }
+
+    /**
+     * Taglia il dendrogramma in modo da avere k cluster, eseguendo le prime
+     * n - k fusioni. Se il grafo ha più di k componenti connesse i cluster
+     * sono le componenti connesse.
+     *
+     * @param k
+     *              il numero di cluster
+     * @return i cluster, numerati nell'ordine del loro nodo di indice minimo
+     * @throws IllegalArgumentException
+     *                                      se k non è tra 1 e il numero di
+     *                                      nodi
+     */
+    public ConnectedComponents<L> cut(int k) {
+        if (k < 1 || k > nodes.length) {
+            throw new IllegalArgumentException("Il numero di cluster deve essere tra 1 e il numero di nodi.");
+        }
+        return clustersAfter(Math.min(left.length, nodes.length - k));
+    }
+
+    /**
+     * Taglia il dendrogramma all'altezza data, eseguendo tutte le fusioni di
+     * altezza minore o uguale.
+     *
+     * @param maxDistance
+     *                        l'altezza del taglio
+     * @return i cluster, numerati nell'ordine del loro nodo di indice minimo
+     * @throws IllegalArgumentException
+     *                                      se l'altezza è NaN
+     */
+    public ConnectedComponents<L> cutAt(double maxDistance) {
+        if (Double.isNaN(maxDistance)) {
+            throw new IllegalArgumentException("L'altezza del taglio non è un numero.");
+        }
+        //Le altezze sono ordinate: cerco la prima fusione più alta del taglio.
+        int basso = 0;
+        int alto = height.length;
+        while (basso < alto) {
+            int medio = (basso + alto) >>> 1;
+            if (Double.compare(height[medio], maxDistance) <= 0) {
+                basso = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return clustersAfter(basso);
+    }
+
+    //Metodo privato: cluster dopo le prime fusioni, rieseguite su insiemi disgiunti.
+    private ConnectedComponents<L> clustersAfter(int merges) {
+        int n = nodes.length;
+        int[] padre = new int[n];
+        for (int i = 0; i < n; i++) {
+            padre[i] = i;
+        }
+        //Un nodo rappresentante per ogni cluster creato da una fusione.
+        int[] foglia = new int[merges];
+        for (int i = 0; i < merges; i++) {
+            int a = leafOf(left[i], foglia);
+            int b = leafOf(right[i], foglia);
+            foglia[i] = a;
+            padre[KruskalMSP.find(padre, b)] = KruskalMSP.find(padre, a);
+        }
+        return ConnectedComponents.fromForest(nodes, padre);
+    }
+
+    //Metodo privato: un nodo del cluster.
+    private int leafOf(int cluster, int[] foglia) {
+        return cluster < nodes.length ? cluster : foglia[cluster - nodes.length];
+    }
+
+    //Metodo privato: numero di nodi di un cluster già creato.
+    private int clusterSize(int cluster) {
+        return cluster < nodes.length ? 1 : size[cluster - nodes.length];
+    }
+
+    //Metodo privato: controllo dell'indice di una fusione.
+    private void checkMerge(int i) {
+        if (i < 0 || i > left.length - 1) {
+            throw new IndexOutOfBoundsException("L'indice passato non corrisponde a nessuna fusione.");
+        }
+    }
+}
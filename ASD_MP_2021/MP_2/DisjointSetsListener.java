@@ -0,0 +1,46 @@
+package it.unicam.cs.asdl2122.mp2;
+
+/**
+ * Ascoltatore delle operazioni eseguite da {@link ForestDisjointSets}. Tutti i
+ * metodi hanno un'implementazione vuota di default; l'ascoltatore
+ * {@link #NONE}, usato quando non ne viene impostato nessuno, non fa niente e
+ * le sue chiamate vengono eliminate dal compilatore JIT, per cui la raccolta
+ * di metriche disattivata non ha costi apprezzabili.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ */
+public interface DisjointSetsListener {
+
+    /**
+     * Ascoltatore che non fa niente, usato quando le metriche sono disattivate.
+     */
+    DisjointSetsListener NONE = new DisjointSetsListener() {
+    };
+
+    /**
+     * Chiamato dopo ogni makeSet eseguito con successo.
+     */
+    default void makeSetPerformed() {
+    }
+
+    /**
+     * Chiamato dopo ogni chiamata del metodo pubblico findSet su un elemento
+     * presente. Le ricerche della radice fatte internamente da union e dalle
+     * enumerazioni degli insiemi non vengono notificate.
+     *
+     * @param pathLength
+     *                       numero di archi percorsi per arrivare alla radice,
+     *                       misurato prima della compressione del cammino
+     */
+    default void findSetPerformed(int pathLength) {
+    }
+
+    /**
+     * Chiamato dopo ogni union che ha effettivamente unito due insiemi.
+     *
+     * @param rank
+     *                 il rango della radice dell'albero risultante
+     */
+    default void unionPerformed(int rank) {
+    }
+}
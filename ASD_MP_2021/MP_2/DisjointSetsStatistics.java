@@ -0,0 +1,130 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+
+/**
+ * Ascoltatore che raccoglie le metriche di una o più istanze di
+ * {@link ForestDisjointSets}: numero di makeSet, findSet e union, istogramma
+ * delle lunghezze dei cammini prima della compressione e rango massimo. Serve a
+ * verificare che l'unione per rango e la compressione dei cammini funzionino:
+ * con entrambe le euristiche i cammini restano lunghi al più O(log n) e quasi
+ * sempre lunghi 0 o 1.
+ *
+ * I contatori sono thread-safe e possono essere letti tramite JMX registrando
+ * l'oggetto con {@link #register(String)}.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ */
+public class DisjointSetsStatistics implements DisjointSetsListener, DisjointSetsStatisticsMBean {
+
+    //Numero di posizioni dell'istogramma, l'ultima raccoglie i cammini più lunghi.
+    public static final int HISTOGRAM_SIZE = 64;
+
+    private final LongAdder makeSets = new LongAdder();
+    private final LongAdder finds = new LongAdder();
+    private final LongAdder unions = new LongAdder();
+    private final LongAdder totalPathLength = new LongAdder();
+    private final AtomicInteger maxPathLength = new AtomicInteger();
+    private final AtomicInteger maxRank = new AtomicInteger();
+    private final AtomicLongArray pathLengths = new AtomicLongArray(HISTOGRAM_SIZE);
+
+    @Override
+    public void makeSetPerformed() {
+        makeSets.increment();
+    }
+
+    @Override
+    public void findSetPerformed(int pathLength) {
+        finds.increment();
+        totalPathLength.add(pathLength);
+        pathLengths.incrementAndGet(Math.min(pathLength, HISTOGRAM_SIZE - 1));
+        //Aggiorno il massimo solo se serve, evitando scritture inutili.
+        if (pathLength > maxPathLength.get()) {
+            maxPathLength.accumulateAndGet(pathLength, Math::max);
+        }
+    }
+
+    @Override
+    public void unionPerformed(int rank) {
+        unions.increment();
+        if (rank > maxRank.get()) {
+            maxRank.accumulateAndGet(rank, Math::max);
+        }
+    }
+
+    @Override
+    public long getMakeSetCount() {
+        return makeSets.sum();
+    }
+
+    @Override
+    public long getFindSetCount() {
+        return finds.sum();
+    }
+
+    @Override
+    public long getUnionCount() {
+        return unions.sum();
+    }
+
+    @Override
+    public double getAveragePathLength() {
+        long conteggio = finds.sum();
+        return conteggio == 0 ? 0 : (double) totalPathLength.sum() / conteggio;
+    }
+
+    @Override
+    public int getMaxPathLength() {
+        return maxPathLength.get();
+    }
+
+    @Override
+    public long[] getPathLengthHistogram() {
+        long[] istogramma = new long[HISTOGRAM_SIZE];
+        for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+            istogramma[i] = pathLengths.get(i);
+        }
+        return istogramma;
+    }
+
+    @Override
+    public int getMaxRank() {
+        return maxRank.get();
+    }
+
+    @Override
+    public void reset() {
+        makeSets.reset();
+        finds.reset();
+        unions.reset();
+        totalPathLength.reset();
+        maxPathLength.set(0);
+        maxRank.set(0);
+        for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+            pathLengths.set(i, 0);
+        }
+    }
+
+    /**
+     * Registra queste metriche nel server JMX della piattaforma.
+     *
+     * @param name
+     *                 il nome JMX, ad esempio
+     *                 {@code "it.unicam.cs.asdl2122.mp2:type=DisjointSets,name=kruskal"}
+     * @return il nome con cui l'oggetto è stato registrato
+     * @throws JMException
+     *                         se il nome non è valido o è già registrato
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName nome = new ObjectName(name);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, nome);
+        return nome;
+    }
+}
@@ -0,0 +1,53 @@
+package it.unicam.cs.asdl2122.mp2;
+
+/**
+ * Interfaccia JMX delle metriche raccolte da {@link DisjointSetsStatistics}.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ */
+public interface DisjointSetsStatisticsMBean {
+
+    /**
+     * @return il numero di makeSet eseguiti
+     */
+    long getMakeSetCount();
+
+    /**
+     * @return il numero di findSet eseguiti
+     */
+    long getFindSetCount();
+
+    /**
+     * @return il numero di union che hanno unito due insiemi
+     */
+    long getUnionCount();
+
+    /**
+     * @return la lunghezza media dei cammini percorsi dai findSet, prima della
+     *         compressione
+     */
+    double getAveragePathLength();
+
+    /**
+     * @return la lunghezza massima di un cammino percorso da un findSet, prima
+     *         della compressione
+     */
+    int getMaxPathLength();
+
+    /**
+     * @return l'istogramma delle lunghezze dei cammini: la posizione i contiene
+     *         il numero di findSet con cammino lungo i, l'ultima posizione
+     *         quelli con cammino lungo almeno quanto il suo indice
+     */
+    long[] getPathLengthHistogram();
+
+    /**
+     * @return il rango massimo raggiunto da una radice
+     */
+    int getMaxRank();
+
+    /**
+     * Azzera tutte le metriche.
+     */
+    void reset();
+}
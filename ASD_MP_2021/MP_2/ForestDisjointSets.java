@@ -26,6 +26,12 @@ public class ForestDisjointSets<E> implements DisjointSets<E> {
      * i test JUnit.
      */
     protected Map<E, Node<E>> currentElements;
+
+    /*
+     * Ascoltatore a cui vengono notificate le operazioni, per la raccolta di
+     * metriche. Di default è quello che non fa niente.
+     */
+    private DisjointSetsListener listener = DisjointSetsListener.NONE;
     
     /*
      * Classe interna statica che rappresenta i nodi degli alberi della foresta.
@@ -74,6 +80,18 @@ public class ForestDisjointSets<E> implements DisjointSets<E> {
         currentElements = new HashMap<>();
     }
 
+    /**
+     * Imposta l'ascoltatore a cui notificare makeSet, findSet (con la
+     * lunghezza del cammino prima della compressione) e union (con il rango
+     * della radice risultante), ad esempio un {@link DisjointSetsStatistics}.
+     *
+     * @param listener
+     *                     l'ascoltatore, null per disattivare le notifiche
+     */
+    public void setListener(DisjointSetsListener listener) {
+        this.listener = listener == null ? DisjointSetsListener.NONE : listener;
+    }
+
     @Override
     public boolean isPresent(E e) {
         return currentElements.containsKey(e);
@@ -94,9 +112,10 @@ public class ForestDisjointSets<E> implements DisjointSets<E> {
             throw new IllegalArgumentException("L'elemento passato è già presente.");
         }
         //Creo un nodo con elemento passato.
-        Node<E> temp = new Node<>(e);
+        Node<E> temp = newNode(e);
         //Utilizzo il metodo put della mappa.
         currentElements.put(e,temp);
+        listener.makeSetPerformed();
     }
 
     /*
@@ -116,14 +135,16 @@ public class ForestDisjointSets<E> implements DisjointSets<E> {
         if(node == null){
             return null;
         }
-        //Controllo se sono la stessa istanza quindi se e è gia lui stesso il parent.
-        if(node == node.parent)  {
-            return node.item;
+        //Conto gli archi percorsi solo se c'è un ascoltatore a cui notificarli:
+        int lunghezza = 0;
+        if (listener != DisjointSetsListener.NONE) {
+            for (Node<E> corrente = node; corrente != corrente.parent; corrente = corrente.parent) {
+                lunghezza++;
+            }
         }
-        E radice = findSet(node.parent.item); //torna l'elemento radice.
-        Node<E> temp = currentElements.get(radice); //assegno a temp il nodo(tramite il get(radice))
-        node.parent = temp;
-        return radice;
+        Node<E> radice = findRoot(node);
+        listener.findSetPerformed(lunghezza);
+        return radice.item;
     }
 
     /*
@@ -146,16 +167,13 @@ public class ForestDisjointSets<E> implements DisjointSets<E> {
         if(!currentElements.containsKey(e1) || !currentElements.containsKey(e2)){
             throw new IllegalArgumentException("Almeno uno dei due elementi passati non è presente.");
         }
-        //Assegno a due variabili E il corrispettivo findSet di e1 ed e2
-        E eUno = findSet(e1);
-        E eDue = findSet(e2);
+        //Assegno a nodoUno e nodoDue le radici degli alberi di e1 ed e2:
+        Node<E> nodoUno = findRoot(currentElements.get(e1));
+        Node<E> nodoDue = findRoot(currentElements.get(e2));
         //Controllo se sono uguali.
-        if (eUno == eDue) {
+        if (nodoUno == nodoDue) {
             return;
         }
-        //Assegno a nodoUno e nodoDue i corrispettivi nodi degli elementi E (tramite il get()):
-        Node<E> nodoUno = currentElements.get(eUno);
-        Node<E> nodoDue = currentElements.get(eDue);
         //Richiamo il metodo interno link:
         link(nodoUno, nodoDue);
     }
@@ -166,7 +184,7 @@ public class ForestDisjointSets<E> implements DisjointSets<E> {
         Set<E> set = new HashSet<>();
         //Scorro tutte le chiavi della mappa (tramite il keySet()).
         for(E currentElement : currentElements.keySet()){
-            E rappresentante = findSet(currentElement); //variabile interna, assegno il findSet dell'elemento currentElement
+            E rappresentante = findRoot(currentElements.get(currentElement)).item; //variabile interna, assegno il rappresentante dell'elemento currentElement
             set.add(rappresentante); //aggiungo l'elemento al set (tramite add()).
         }
         return set;
@@ -184,12 +202,12 @@ public class ForestDisjointSets<E> implements DisjointSets<E> {
         }
         //Creo un Set:
         Set<E> elementi = new HashSet<>();
-        E radice = findSet(e); //trova la radice dell'elemento passato.
-        //Scorro tutte le chiavi della mappa(tramite keySet()):
-        for(E currentElement : currentElements.keySet()){
-            //Se i due findSet sono uguali allora aggiungo il currentElement al Set:
-            if(findSet(currentElement) == radice){
-                elementi.add(currentElement); //aggiungo al set currentElement.
+        Node<E> radice = findRoot(currentElements.get(e)); //trova la radice dell'elemento passato.
+        //Scorro tutte le coppie della mappa(tramite entrySet()):
+        for(Map.Entry<E, Node<E>> currentElement : currentElements.entrySet()){
+            //Se le due radici sono uguali allora aggiungo l'elemento al Set:
+            if(findRoot(currentElement.getValue()) == radice){
+                elementi.add(currentElement.getKey()); //aggiungo al set l'elemento.
             }
         }
         //Ritorno il set elementi:
@@ -201,16 +219,64 @@ public class ForestDisjointSets<E> implements DisjointSets<E> {
         currentElements = new HashMap<>();
     }
 
+    /*
+     * Crea il nodo di un nuovo elemento. Le sottoclassi possono ridefinirlo per
+     * usare nodi con informazioni aggiuntive.
+     */
+    protected Node<E> newNode(E e) {
+        return new Node<>(e);
+    }
+
+    /*
+     * Radice dell'albero dell'elemento, null se l'elemento non è presente, con
+     * la compressione del cammino ma senza notificare l'ascoltatore: serve alle
+     * sottoclassi per il lavoro interno che non è un findSet del chiamante.
+     */
+    protected Node<E> rootOf(E e) {
+        Node<E> node = currentElements.get(e);
+        return node == null ? null : findRoot(node);
+    }
+
+    /*
+     * Chiamato da link dopo che la radice child è diventata figlia della
+     * radice root. Di default non fa niente; le sottoclassi possono
+     * ridefinirlo per aggiornare in O(1) le informazioni tenute nelle radici.
+     */
+    protected void linked(Node<E> root, Node<E> child) {
+    }
+
+    /*
+     * Metodo privato: radice dell'albero del nodo con la compressione del
+     * cammino (ogni nodo percorso punta direttamente alla radice). Non notifica
+     * l'ascoltatore, per cui è usato da union e dalle enumerazioni: solo il
+     * findSet pubblico conta come findSet.
+     */
+    private Node<E> findRoot(Node<E> node) {
+        Node<E> radice = node;
+        while (radice != radice.parent) {
+            radice = radice.parent;
+        }
+        while (node != radice) {
+            Node<E> successivo = node.parent;
+            node.parent = radice;
+            node = successivo;
+        }
+        return radice;
+    }
+
     //Metodo Privato:
     private void link(Node<E> e1,Node<E> e2){
         //Assegno il corrispettivo parent in base al rank dei due nodi:
         if(e1.rank > e2.rank){
             e2.parent =e1;
+            linked(e1, e2);
         }else {
             e1.parent = e2;
             if(e1.rank == e2.rank){
                 e2.rank ++;
             }
+            linked(e2, e1);
         }
+        listener.unionPerformed(Math.max(e1.rank, e2.rank));
     }
 }
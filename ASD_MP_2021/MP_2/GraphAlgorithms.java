@@ -0,0 +1,445 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+
+/**
+ * Punto di accesso thread-safe agli algoritmi del pacchetto, pensato per un
+ * servizio che riceve molte richieste indipendenti: una sola istanza può
+ * essere usata da più thread contemporaneamente. Diversamente da
+ * {@link KruskalMSP}, {@link PrimMSP} e
+ * {@link UndirectedGraphConnectedComponentsComputer}, che tengono lo stato di
+ * lavoro in campi dell'istanza, qui tutto lo stato di lavoro (insiemi
+ * disgiunti, code con priorità, distanze, code delle visite, archi ordinati)
+ * è in array primitivi tenuti per thread e riusati tra una chiamata e
+ * l'altra. Gli array crescono con il grafo più grande visto dal thread e non
+ * vengono riazzerati: ogni chiamata usa una nuova epoca e un valore è valido
+ * solo se il suo timbro è uguale all'epoca corrente, per cui l'inizializzazione
+ * costa O(1).
+ *
+ * {@link #batch(List, Function)} esegue molti lavori indipendenti, ad esempio
+ * uno per grafo, su un pool di thread di dimensione fissata, e restituisce i
+ * risultati nell'ordine dei lavori. Il pool va chiuso con {@link #close()}.
+ *
+ * I grafi non devono essere modificati durante un calcolo.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ */
+public final class GraphAlgorithms implements AutoCloseable {
+
+    //Stato di lavoro di ogni thread.
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    //true nei thread del pool, per eseguire in sequenza un batch lanciato da un lavoro.
+    private final ThreadLocal<Boolean> worker = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    //Pool su cui vengono eseguiti i batch.
+    private final ExecutorService executor;
+
+    /*
+     * Stato di lavoro di un thread. I valori di stamp (distanze e chiavi),
+     * done (nodi completati) e ufStamp (insiemi disgiunti) sono validi solo
+     * se il timbro è uguale a epoch.
+     */
+    private static final class Scratch {
+        private int epoch;
+        private int[] stamp = new int[0];
+        private int[] done = new int[0];
+        private double[] key = new double[0];
+        private int[] queue = new int[0];
+        private IndexedMinHeap heap = new IndexedMinHeap(0);
+
+        //Insiemi disgiunti sugli indici.
+        private int[] ufStamp = new int[0];
+        private int[] ufParent = new int[0];
+        private int[] ufRank = new int[0];
+
+        //Archi come terne (u, v, peso).
+        private int[] u = new int[1];
+        private int[] v = new int[1];
+        private double[] w = new double[1];
+
+        //Prepara lo stato per un grafo con n nodi e m archi e passa a una nuova epoca.
+        private void prepare(int n, int m) {
+            if (stamp.length < n) {
+                int capacita = Math.max(n, Math.min(Integer.MAX_VALUE - 8, 2 * stamp.length));
+                stamp = new int[capacita];
+                done = new int[capacita];
+                key = new double[capacita];
+                queue = new int[capacita];
+                heap = new IndexedMinHeap(capacita);
+                ufStamp = new int[capacita];
+                ufParent = new int[capacita];
+                ufRank = new int[capacita];
+                epoch = 0;
+            }
+            if (u.length < m) {
+                int capacita = Math.max(m, Math.min(Integer.MAX_VALUE - 8, 2 * u.length));
+                u = new int[capacita];
+                v = new int[capacita];
+                w = new double[capacita];
+            }
+            heap.clear();
+            epoch++;
+            //Dopo un giro completo dei timbri li riazzero, una volta ogni 2^31 chiamate.
+            if (epoch == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                Arrays.fill(done, 0);
+                Arrays.fill(ufStamp, 0);
+                epoch = 1;
+            }
+        }
+
+        //Rappresentante di i, dimezzando il cammino.
+        private int find(int i) {
+            if (ufStamp[i] != epoch) {
+                return i;
+            }
+            //Gli elementi toccati puntano sempre a elementi toccati nella stessa epoca.
+            while (ufParent[i] != i) {
+                ufParent[i] = ufParent[ufParent[i]];
+                i = ufParent[i];
+            }
+            return i;
+        }
+
+        //Unione per rango di due radici distinte.
+        private void link(int a, int b) {
+            touch(a);
+            touch(b);
+            if (ufRank[a] < ufRank[b]) {
+                ufParent[a] = b;
+            } else {
+                ufParent[b] = a;
+                if (ufRank[a] == ufRank[b]) {
+                    ufRank[a]++;
+                }
+            }
+        }
+
+        //Rende valido nell'epoca corrente un elemento degli insiemi disgiunti.
+        private void touch(int i) {
+            if (ufStamp[i] != epoch) {
+                ufStamp[i] = epoch;
+                ufParent[i] = i;
+                ufRank[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Crea un'istanza con un pool di tanti thread quanti sono i processori
+     * disponibili.
+     */
+    public GraphAlgorithms() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Crea un'istanza con un pool del numero di thread dato.
+     *
+     * @param parallelism
+     *                        il numero di thread del pool
+     * @throws IllegalArgumentException
+     *                                      se parallelism non è positivo
+     */
+    public GraphAlgorithms(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Il numero di thread deve essere positivo.");
+        }
+        AtomicInteger contatore = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, compito -> {
+            Thread thread = new Thread(() -> {
+                worker.set(Boolean.TRUE);
+                compito.run();
+            }, "graph-algorithms-" + contatore.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Albero (o foresta) di copertura minimo con l'algoritmo di Kruskal, come
+     * {@link KruskalMSP#computeMSPResult(Graph)}.
+     *
+     * @param g
+     *              un grafo non orientato, pesato, con pesi non negativi
+     * @param <L>
+     *              tipo delle etichette dei nodi del grafo
+     * @return l'albero (o la foresta) di copertura minimo
+     * @throw NullPointerException se il grafo g è null
+     * @throw IllegalArgumentException se il grafo g è orientato, non pesato o
+     *        con pesi negativi
+     */
+    public <L> MSPResult<L> kruskal(Graph<L> g) {
+        //Controllo se il grafo passato è nullo.
+        if (g == null) {
+            throw new NullPointerException("Il grafo è null.");
+        }
+        GraphIndex.checkWeighted(g);
+        int n = g.nodeCount();
+        Scratch s = scratch.get();
+        s.prepare(n, g.edgeCount());
+        int archi = KruskalMSP.sortedEdges(g, s.u, s.v, s.w);
+        int scelti = 0;
+        for (int k = 0; k < archi && scelti < n - 1; k++) {
+            int a = s.find(s.u[k]);
+            int b = s.find(s.v[k]);
+            if (a != b) {
+                s.link(a, b);
+                //Gli archi scelti vengono compattati all'inizio degli array.
+                s.u[scelti] = s.u[k];
+                s.v[scelti] = s.v[k];
+                s.w[scelti++] = s.w[k];
+            }
+        }
+        return MSPResult.fromEdges(GraphIndex.nodesByIndex(g), s.u, s.v, s.w, scelti);
+    }
+
+    /**
+     * Albero di copertura minimo con l'algoritmo di Prim dalla sorgente data,
+     * come {@link PrimMSP#computeMSPResult(Graph, GraphNode)}.
+     *
+     * @param g
+     *              un grafo non orientato, pesato, con pesi non negativi
+     * @param s
+     *              il nodo sorgente
+     * @param <L>
+     *              tipo delle etichette dei nodi del grafo
+     * @return l'albero di copertura minimo della componente della sorgente
+     * @throw NullPointerException se il grafo g o la sorgente sono null
+     * @throw IllegalArgumentException se la sorgente non è nel grafo o se il
+     *        grafo g è orientato, non pesato o con pesi negativi
+     */
+    public <L> MSPResult<L> prim(Graph<L> g, GraphNode<L> s) {
+        //Controllo se il grafo o il nodo sorgente sono nulli:
+        if (g == null || s == null) {
+            throw new NullPointerException("Il grafo o il nodo sorgente sono nulli.");
+        }
+        //Controllo se il grafo contiene il nodo s:
+        if (g.getNode(s) == null) {
+            throw new IllegalArgumentException("Il nodo sorgente non esiste nel grafo.");
+        }
+        GraphIndex.checkWeighted(g);
+        int n = g.nodeCount();
+        Scratch stato = scratch.get();
+        stato.prepare(n, 0);
+        int epoca = stato.epoch;
+        int[] padri = new int[n];
+        double[] chiavi = new double[n];
+        Arrays.fill(padri, -1);
+        Arrays.fill(chiavi, Double.POSITIVE_INFINITY);
+        int sorgente = g.getNodeIndexOf(s);
+        chiavi[sorgente] = 0;
+        stato.heap.insertOrDecrease(sorgente, 0);
+        while (!stato.heap.isEmpty()) {
+            int u = stato.heap.extractMin();
+            stato.done[u] = epoca;
+            GraphIndex.forEachNeighbor(g, u, (v, peso) -> {
+                if (stato.done[v] != epoca && peso < chiavi[v]) {
+                    chiavi[v] = peso;
+                    padri[v] = u;
+                    stato.heap.insertOrDecrease(v, peso);
+                }
+            });
+        }
+        return new MSPResult<>(GraphIndex.nodesByIndex(g), padri, chiavi);
+    }
+
+    /**
+     * Componenti connesse, come
+     * {@link UndirectedGraphConnectedComponentsComputer#computeComponentLabels(Graph)}.
+     *
+     * @param g
+     *              un grafo non orientato
+     * @param <L>
+     *              tipo delle etichette dei nodi del grafo
+     * @return le componenti connesse del grafo
+     * @throws NullPointerException
+     *                                      se il grafo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato è orientato
+     */
+    public <L> ConnectedComponents<L> components(Graph<L> g) {
+        //Controllo se il grafo passato è nullo.
+        if (g == null) {
+            throw new NullPointerException("Il grafo passato è nullo");
+        }
+        //Controllo se il grafo passato è orientato.
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("Il grafo passato è orientato");
+        }
+        int n = g.nodeCount();
+        Scratch s = scratch.get();
+        s.prepare(n, 0);
+        int[] etichette = new int[n];
+        Arrays.fill(etichette, -1);
+        int[] coda = s.queue;
+        int componenti = 0;
+        for (int radice = 0; radice < n; radice++) {
+            if (etichette[radice] >= 0) {
+                continue;
+            }
+            int c = componenti++;
+            int testa = 0;
+            int[] fine = {0};
+            coda[fine[0]++] = radice;
+            etichette[radice] = c;
+            while (testa < fine[0]) {
+                GraphIndex.forEachNeighbor(g, coda[testa++], (v, peso) -> {
+                    if (etichette[v] < 0) {
+                        etichette[v] = c;
+                        coda[fine[0]++] = v;
+                    }
+                });
+            }
+        }
+        return new ConnectedComponents<>(GraphIndex.nodesByIndex(g), etichette, componenti);
+    }
+
+    /**
+     * Distanza minima tra due nodi con Dijkstra, che si ferma appena la
+     * destinazione viene estratta dalla coda: il costo dipende solo dalla
+     * parte di grafo visitata, non dal numero di nodi.
+     *
+     * @param g
+     *              un grafo non orientato, pesato, con pesi non negativi
+     * @param s
+     *              la sorgente
+     * @param t
+     *              la destinazione
+     * @param <L>
+     *              tipo delle etichette dei nodi del grafo
+     * @return la distanza, infinito se t non è raggiungibile da s
+     * @throw NullPointerException se il grafo o uno dei nodi sono null
+     * @throw IllegalArgumentException se uno dei nodi non è nel grafo o se il
+     *        grafo g è orientato, non pesato o con pesi negativi
+     */
+    public <L> double distance(Graph<L> g, GraphNode<L> s, GraphNode<L> t) {
+        //Controllo se il grafo o i nodi sono nulli:
+        if (g == null || s == null || t == null) {
+            throw new NullPointerException("Il grafo o uno dei nodi sono nulli.");
+        }
+        //Controllo se il grafo contiene i nodi:
+        if (g.getNode(s) == null || g.getNode(t) == null) {
+            throw new IllegalArgumentException("Almeno uno dei nodi non esiste nel grafo.");
+        }
+        GraphIndex.checkWeighted(g);
+        Scratch stato = scratch.get();
+        stato.prepare(g.nodeCount(), 0);
+        int epoca = stato.epoch;
+        int sorgente = g.getNodeIndexOf(s);
+        int destinazione = g.getNodeIndexOf(t);
+        stato.stamp[sorgente] = epoca;
+        stato.key[sorgente] = 0;
+        stato.heap.insertOrDecrease(sorgente, 0);
+        while (!stato.heap.isEmpty()) {
+            double d = stato.heap.minKey();
+            int u = stato.heap.extractMin();
+            if (u == destinazione) {
+                return d;
+            }
+            stato.done[u] = epoca;
+            GraphIndex.forEachNeighbor(g, u, (v, peso) -> {
+                double nuova = d + peso;
+                if (stato.done[v] != epoca && (stato.stamp[v] != epoca || nuova < stato.key[v])) {
+                    stato.stamp[v] = epoca;
+                    stato.key[v] = nuova;
+                    stato.heap.insertOrDecrease(v, nuova);
+                }
+            });
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Esegue un lavoro per ogni ingresso sul pool di thread e restituisce i
+     * risultati nello stesso ordine, ad esempio
+     * {@code algorithms.batch(grafi, algorithms::kruskal)}. Se un lavoro lancia
+     * un'eccezione, questa viene rilanciata (non appena tutti i lavori
+     * precedenti sono terminati) e i lavori non ancora iniziati vengono
+     * annullati. Un batch lanciato dall'interno di un lavoro viene eseguito in
+     * sequenza nel thread corrente, per non bloccare il pool.
+     *
+     * @param inputs
+     *                   gli ingressi, ad esempio i grafi
+     * @param job
+     *                   il lavoro da eseguire su ogni ingresso
+     * @param <T>
+     *                   il tipo degli ingressi
+     * @param <R>
+     *                   il tipo dei risultati
+     * @return i risultati, nell'ordine degli ingressi
+     * @throws NullPointerException
+     *                                      se gli ingressi o il lavoro sono
+     *                                      nulli
+     * @throws IllegalStateException
+     *                                      se il pool è stato chiuso
+     * @throws CancellationException
+     *                                      se il thread viene interrotto
+     *                                      durante l'attesa
+     */
+    public <T, R> List<R> batch(List<? extends T> inputs, Function<? super T, ? extends R> job) {
+        //Controllo se gli ingressi o il lavoro sono nulli.
+        if (inputs == null || job == null) {
+            throw new NullPointerException("Gli ingressi o il lavoro sono nulli.");
+        }
+        if (executor.isShutdown()) {
+            throw new IllegalStateException("Il pool è stato chiuso.");
+        }
+        List<R> risultati = new ArrayList<>(inputs.size());
+        if (worker.get()) {
+            for (T input : inputs) {
+                risultati.add(job.apply(input));
+            }
+            return risultati;
+        }
+        List<Future<? extends R>> futuri = new ArrayList<>(inputs.size());
+        for (T input : inputs) {
+            futuri.add(executor.submit(() -> job.apply(input)));
+        }
+        try {
+            for (Future<? extends R> futuro : futuri) {
+                risultati.add(futuro.get());
+            }
+            return risultati;
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw new IllegalStateException(causa);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            CancellationException annullato = new CancellationException("Attesa interrotta.");
+            annullato.initCause(e);
+            throw annullato;
+        } finally {
+            //Annullo i lavori rimasti (nessuno, se tutto è andato bene).
+            for (Future<? extends R> futuro : futuri) {
+                futuro.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Chiude il pool di thread; i batch già avviati vengono completati. I
+     * metodi di calcolo singolo restano utilizzabili.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
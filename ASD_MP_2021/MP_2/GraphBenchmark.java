@@ -0,0 +1,230 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+
+/**
+ * Benchmark di scalabilità degli algoritmi del pacchetto su grafi generati con
+ * {@link GraphGenerators}. Per ogni famiglia di grafi (Erdős–Rényi con tre
+ * densità, griglia, R-MAT e completo) e per ogni numero di nodi V della serie
+ * 256, 512, 1024, ... fino al massimo richiesto, ogni algoritmo viene eseguito
+ * alcune volte a vuoto e poi {@link #REPETITIONS} volte misurate. Per ogni
+ * misura viene stampata una riga CSV con:
+ * <ul>
+ * <li>il tempo mediano in nanosecondi;</li>
+ * <li>i byte allocati in media da un'esecuzione, letti da
+ * {@code com.sun.management.ThreadMXBean} (solo il thread principale: gli
+ * algoritmi paralleli allocano anche nei thread del pool);</li>
+ * <li>il picco di occupazione dello heap durante le esecuzioni misurate, grafo
+ * compreso.</li>
+ * </ul>
+ * Alla fine, per ogni famiglia e algoritmo, viene stampato come commento
+ * l'esponente stimato tra le due dimensioni più grandi (pendenza di log(tempo)
+ * rispetto a log(V)), segnalando quelli sopra {@link #CUBIC_WARNING}: servono a
+ * tracciare le curve di complessità e ad accorgersi di regressioni verso
+ * O(V^3).
+ *
+ * Uso: {@code java it.unicam.cs.asdl2122.mp2.GraphBenchmark [maxNodes] [file.csv]}
+ * (di default 1024 nodi e stampa su standard output). Gli algoritmi più lenti
+ * vengono eseguiti solo fino a un numero massimo di nodi, indicato nella
+ * tabella dei casi.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ */
+public final class GraphBenchmark {
+
+    //Esecuzioni a vuoto e misurate per ogni caso.
+    public static final int WARMUPS = 2;
+    public static final int REPETITIONS = 5;
+
+    //Esponente oltre il quale un caso viene segnalato.
+    public static final double CUBIC_WARNING = 2.5;
+
+    //Seme comune, per rendere ripetibili le misure.
+    private static final long SEED = 42;
+
+    //Risultato dell'ultima esecuzione, tenuto perché il calcolo non venga eliminato.
+    private static volatile Object sink;
+
+    private GraphBenchmark() {
+    }
+
+    /*
+     * Un algoritmo da misurare: nome, numero massimo di nodi su cui eseguirlo
+     * e funzione che lo esegue sul grafo.
+     */
+    private static final class Case {
+        private final String name;
+        private final int maxNodes;
+        private final Function<AdjacencyMatrixUndirectedGraph<Integer>, Object> task;
+
+        private Case(String name, int maxNodes, Function<AdjacencyMatrixUndirectedGraph<Integer>, Object> task) {
+            this.name = name;
+            this.maxNodes = maxNodes;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Esegue il benchmark.
+     *
+     * @param args
+     *                 numero massimo di nodi (opzionale) e file CSV di uscita
+     *                 (opzionale)
+     * @throws FileNotFoundException
+     *                                   se il file di uscita non può essere
+     *                                   creato
+     */
+    public static void main(String[] args) throws FileNotFoundException {
+        int maxNodes = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+        PrintStream out = args.length > 1 ? new PrintStream(args[1]) : System.out;
+        List<Case> casi = cases();
+        //Tempi mediani per famiglia e algoritmo, indicizzati per dimensione.
+        Map<String, List<double[]>> curve = new LinkedHashMap<>();
+        out.println("workload,algorithm,nodes,edges,median_ns,allocated_bytes,peak_heap_bytes,status");
+        for (int v = 256; v <= maxNodes; v *= 2) {
+            for (String famiglia : new String[] {"er-0.01", "er-0.1", "er-0.5", "grid", "rmat", "complete"}) {
+                AdjacencyMatrixUndirectedGraph<Integer> g = generate(famiglia, v);
+                for (Case caso : casi) {
+                    if (g.nodeCount() > caso.maxNodes) {
+                        continue;
+                    }
+                    double[] misura = measure(caso, g);
+                    String stato = Double.isNaN(misura[0]) ? "error" : "ok";
+                    out.printf("%s,%s,%d,%d,%.0f,%.0f,%.0f,%s%n", famiglia, caso.name, g.nodeCount(), g.edgeCount(),
+                            misura[0], misura[1], misura[2], stato);
+                    if (!Double.isNaN(misura[0])) {
+                        curve.computeIfAbsent(famiglia + "," + caso.name, k -> new ArrayList<>())
+                                .add(new double[] {g.nodeCount(), misura[0]});
+                    }
+                }
+            }
+        }
+        //Esponenti stimati tra le due dimensioni più grandi:
+        for (Map.Entry<String, List<double[]>> curva : curve.entrySet()) {
+            List<double[]> punti = curva.getValue();
+            if (punti.size() < 2) {
+                continue;
+            }
+            double[] a = punti.get(punti.size() - 2);
+            double[] b = punti.get(punti.size() - 1);
+            double esponente = Math.log(b[1] / a[1]) / Math.log(b[0] / a[0]);
+            out.printf("# exponent,%s,%.2f%s%n", curva.getKey(), esponente,
+                    esponente > CUBIC_WARNING ? ",WARNING" : "");
+        }
+        out.flush();
+    }
+
+    //Metodo privato: i casi misurati, con il numero massimo di nodi per i più lenti.
+    private static List<Case> cases() {
+        List<Case> casi = new ArrayList<>();
+        casi.add(new Case("matrix-insert", 2048, GraphBenchmark::reinsert));
+        casi.add(new Case("kruskal", Integer.MAX_VALUE, g -> new KruskalMSP<Integer>().computeMSP(g)));
+        casi.add(new Case("kruskal-external", Integer.MAX_VALUE, g -> new KruskalMSP<Integer>().computeMSPExternal(g)));
+        casi.add(new Case("kruskal-result", Integer.MAX_VALUE, g -> new KruskalMSP<Integer>().computeMSPResult(g)));
+        casi.add(new Case("prim", 512, g -> {
+            new PrimMSP<Integer>().computeMSP(g, g.getNode(0));
+            return g;
+        }));
+        casi.add(new Case("prim-result", Integer.MAX_VALUE, g -> new PrimMSP<Integer>().computeMSPResult(g, g.getNode(0))));
+        casi.add(new Case("prim-forest", Integer.MAX_VALUE, g -> new PrimMSP<Integer>().computeMinimumSpanningForest(g)));
+        casi.add(new Case("components", Integer.MAX_VALUE,
+                g -> new UndirectedGraphConnectedComponentsComputer<Integer>().computeConnectedComponents(g)));
+        casi.add(new Case("component-labels", Integer.MAX_VALUE,
+                g -> new UndirectedGraphConnectedComponentsComputer<Integer>().computeComponentLabels(g)));
+        return casi;
+    }
+
+    //Metodo privato: genera il grafo della famiglia data con circa v nodi.
+    private static AdjacencyMatrixUndirectedGraph<Integer> generate(String famiglia, int v) {
+        switch (famiglia) {
+        case "er-0.01":
+            return GraphGenerators.erdosRenyi(v, 0.01, 100, SEED);
+        case "er-0.1":
+            return GraphGenerators.erdosRenyi(v, 0.1, 100, SEED);
+        case "er-0.5":
+            return GraphGenerators.erdosRenyi(v, 0.5, 100, SEED);
+        case "grid":
+            int lato = (int) Math.round(Math.sqrt(v));
+            return GraphGenerators.grid(lato, v / lato, 100, SEED);
+        case "rmat":
+            return GraphGenerators.rmat(31 - Integer.numberOfLeadingZeros(v), 8, 0.57, 0.19, 0.19, 100, SEED);
+        default:
+            return GraphGenerators.complete(v, 100, SEED);
+        }
+    }
+
+    /*
+     * Misura un caso sul grafo: restituisce tempo mediano, byte allocati in
+     * media e picco dello heap; il tempo è NaN se l'algoritmo ha lanciato
+     * un'eccezione.
+     */
+    private static double[] measure(Case caso, AdjacencyMatrixUndirectedGraph<Integer> g) {
+        try {
+            for (int i = 0; i < WARMUPS; i++) {
+                consume(caso.task.apply(g));
+            }
+            List<MemoryPoolMXBean> pool = ManagementFactory.getMemoryPoolMXBeans();
+            for (MemoryPoolMXBean p : pool) {
+                if (p.getType() == MemoryType.HEAP) {
+                    p.resetPeakUsage();
+                }
+            }
+            long[] tempi = new long[REPETITIONS];
+            long allocatiPrima = allocatedBytes();
+            for (int i = 0; i < REPETITIONS; i++) {
+                long inizio = System.nanoTime();
+                consume(caso.task.apply(g));
+                tempi[i] = System.nanoTime() - inizio;
+            }
+            long allocati = allocatedBytes() - allocatiPrima;
+            long picco = 0;
+            for (MemoryPoolMXBean p : pool) {
+                if (p.getType() == MemoryType.HEAP) {
+                    picco += p.getPeakUsage().getUsed();
+                }
+            }
+            Arrays.sort(tempi);
+            return new double[] {tempi[REPETITIONS / 2], allocatiPrima < 0 ? -1 : (double) allocati / REPETITIONS, picco};
+        } catch (RuntimeException e) {
+            return new double[] {Double.NaN, Double.NaN, Double.NaN};
+        }
+    }
+
+    //Metodo privato: byte allocati finora dal thread corrente, -1 se non disponibile.
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    //Metodo privato: conserva il risultato di un'esecuzione.
+    private static void consume(Object risultato) {
+        sink = risultato;
+    }
+
+    //Metodo privato: ricostruisce il grafo con addNode e addEdge, uno alla volta.
+    private static Object reinsert(AdjacencyMatrixUndirectedGraph<Integer> g) {
+        AdjacencyMatrixUndirectedGraph<Integer> copia = new AdjacencyMatrixUndirectedGraph<>();
+        for (int i = 0; i < g.nodeCount(); i++) {
+            copia.addNode(new GraphNode<>(i));
+        }
+        for (GraphEdge<Integer> arco : g.getEdges()) {
+            copia.addWeightedEdge(new GraphNode<>(arco.getNode1().getLabel()), new GraphNode<>(arco.getNode2().getLabel()),
+                    arco.getWeight());
+        }
+        return copia;
+    }
+}
@@ -0,0 +1,233 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.util.Random;
+
+
+/**
+ * Generatori di grafi non orientati e pesati, riproducibili: a parità di
+ * parametri e di seme viene generato sempre lo stesso grafo. Servono a
+ * misurare come scalano gli algoritmi del pacchetto (vedi
+ * {@link GraphBenchmark}).
+ *
+ * I nodi hanno come etichette gli interi da 0 a n - 1, che coincidono con i
+ * loro indici nel grafo. I pesi sono reali distribuiti uniformemente in
+ * [0, maxWeight). I grafi vengono costruiti con
+ * {@link AdjacencyMatrixUndirectedGraphBuilder}; non ci sono cappi e, se un
+ * generatore produce più volte la stessa coppia di nodi, vale il primo arco.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ */
+public final class GraphGenerators {
+
+    private GraphGenerators() {
+    }
+
+    /**
+     * Grafo casuale di Erdős–Rényi G(n, p): ogni coppia di nodi è collegata
+     * con probabilità p, indipendentemente dalle altre. Le coppie non
+     * collegate vengono saltate con salti di lunghezza geometrica, per cui il
+     * costo è proporzionale a n + numero di archi anche per p piccolo.
+     *
+     * @param n
+     *                      numero di nodi
+     * @param p
+     *                      probabilità di ogni arco, tra 0 e 1
+     * @param maxWeight
+     *                      estremo superiore (escluso) dei pesi
+     * @param seed
+     *                      seme del generatore casuale
+     * @return il grafo generato
+     * @throws IllegalArgumentException
+     *                                      se n è negativo, p non è tra 0 e 1
+     *                                      o maxWeight non è positivo
+     */
+    public static AdjacencyMatrixUndirectedGraph<Integer> erdosRenyi(int n, double p, double maxWeight, long seed) {
+        checkNodes(n);
+        checkWeight(maxWeight);
+        if (!(p >= 0 && p <= 1)) {
+            throw new IllegalArgumentException("La probabilità deve essere tra 0 e 1.");
+        }
+        Random random = new Random(seed);
+        AdjacencyMatrixUndirectedGraphBuilder<Integer> builder = nodes(n, (long) (p * n * (n - 1) / 2));
+        if (p == 0) {
+            return builder.build();
+        }
+        double logNon = Math.log(1 - p);
+        //Scorro le coppie (v, w) con w < v, saltando quelle non collegate:
+        int v = 1;
+        long w = -1;
+        while (v < n) {
+            if (p == 1) {
+                w++;
+            } else {
+                w += 1 + (long) Math.floor(Math.log(1 - random.nextDouble()) / logNon);
+            }
+            while (w >= v && v < n) {
+                w -= v;
+                v++;
+            }
+            if (v < n) {
+                builder.addWeightedEdge(v, (int) w, random.nextDouble() * maxWeight);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Griglia bidimensionale: il nodo (r, c) ha indice r * cols + c ed è
+     * collegato ai nodi a destra e in basso.
+     *
+     * @param rows
+     *                      numero di righe
+     * @param cols
+     *                      numero di colonne
+     * @param maxWeight
+     *                      estremo superiore (escluso) dei pesi
+     * @param seed
+     *                      seme del generatore casuale
+     * @return il grafo generato
+     * @throws IllegalArgumentException
+     *                                      se rows o cols sono negativi o
+     *                                      maxWeight non è positivo
+     */
+    public static AdjacencyMatrixUndirectedGraph<Integer> grid(int rows, int cols, double maxWeight, long seed) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Le dimensioni della griglia non possono essere negative.");
+        }
+        checkNodes((long) rows * cols);
+        checkWeight(maxWeight);
+        Random random = new Random(seed);
+        AdjacencyMatrixUndirectedGraphBuilder<Integer> builder = nodes(rows * cols, 2L * rows * cols);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int i = r * cols + c;
+                if (c + 1 < cols) {
+                    builder.addWeightedEdge(i, i + 1, random.nextDouble() * maxWeight);
+                }
+                if (r + 1 < rows) {
+                    builder.addWeightedEdge(i, i + cols, random.nextDouble() * maxWeight);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Grafo R-MAT con 2^scale nodi: ogni arco sceglie ricorsivamente uno dei
+     * quattro quadranti della matrice di adiacenza con probabilità a, b, c e
+     * 1 - a - b - c. Con i parametri classici (0.57, 0.19, 0.19) i gradi
+     * seguono una legge di potenza, come nei grafi reali. Gli archi duplicati
+     * e i cappi vengono scartati, per cui gli archi effettivi sono un po' meno
+     * di edgeFactor * 2^scale.
+     *
+     * @param scale
+     *                       logaritmo in base 2 del numero di nodi
+     * @param edgeFactor
+     *                       archi generati per nodo
+     * @param a
+     *                       probabilità del quadrante in alto a sinistra
+     * @param b
+     *                       probabilità del quadrante in alto a destra
+     * @param c
+     *                       probabilità del quadrante in basso a sinistra
+     * @param maxWeight
+     *                       estremo superiore (escluso) dei pesi
+     * @param seed
+     *                       seme del generatore casuale
+     * @return il grafo generato
+     * @throws IllegalArgumentException
+     *                                      se scale non è tra 0 e 30,
+     *                                      edgeFactor è negativo, le
+     *                                      probabilità non sono valide o
+     *                                      maxWeight non è positivo
+     */
+    public static AdjacencyMatrixUndirectedGraph<Integer> rmat(int scale, int edgeFactor, double a, double b, double c,
+            double maxWeight, long seed) {
+        if (scale < 0 || scale > 30 || edgeFactor < 0) {
+            throw new IllegalArgumentException("Parametri di dimensione non validi.");
+        }
+        if (a < 0 || b < 0 || c < 0 || a + b + c > 1) {
+            throw new IllegalArgumentException("Le probabilità dei quadranti non sono valide.");
+        }
+        checkWeight(maxWeight);
+        int n = 1 << scale;
+        long m = (long) edgeFactor * n;
+        checkNodes(n);
+        if (m > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Troppi archi.");
+        }
+        Random random = new Random(seed);
+        AdjacencyMatrixUndirectedGraphBuilder<Integer> builder = nodes(n, m);
+        for (long k = 0; k < m; k++) {
+            int u = 0;
+            int v = 0;
+            for (int bit = scale - 1; bit >= 0; bit--) {
+                double x = random.nextDouble();
+                if (x >= a + b + c) {
+                    u |= 1 << bit;
+                    v |= 1 << bit;
+                } else if (x >= a + b) {
+                    u |= 1 << bit;
+                } else if (x >= a) {
+                    v |= 1 << bit;
+                }
+            }
+            double peso = random.nextDouble() * maxWeight;
+            if (u != v) {
+                builder.addWeightedEdge(u, v, peso);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Grafo completo: ogni coppia di nodi distinti è collegata.
+     *
+     * @param n
+     *                      numero di nodi
+     * @param maxWeight
+     *                      estremo superiore (escluso) dei pesi
+     * @param seed
+     *                      seme del generatore casuale
+     * @return il grafo generato
+     * @throws IllegalArgumentException
+     *                                      se n è negativo o maxWeight non è
+     *                                      positivo
+     */
+    public static AdjacencyMatrixUndirectedGraph<Integer> complete(int n, double maxWeight, long seed) {
+        checkNodes(n);
+        checkWeight(maxWeight);
+        Random random = new Random(seed);
+        AdjacencyMatrixUndirectedGraphBuilder<Integer> builder = nodes(n, (long) n * (n - 1) / 2);
+        for (int v = 1; v < n; v++) {
+            for (int w = 0; w < v; w++) {
+                builder.addWeightedEdge(v, w, random.nextDouble() * maxWeight);
+            }
+        }
+        return builder.build();
+    }
+
+    //Metodo privato: builder con i nodi da 0 a n - 1.
+    private static AdjacencyMatrixUndirectedGraphBuilder<Integer> nodes(int n, long expectedEdges) {
+        AdjacencyMatrixUndirectedGraphBuilder<Integer> builder = new AdjacencyMatrixUndirectedGraphBuilder<>(n,
+                (int) Math.min(Integer.MAX_VALUE - 8, Math.max(0, expectedEdges)));
+        for (int i = 0; i < n; i++) {
+            builder.addNode(i);
+        }
+        return builder;
+    }
+
+    //Metodo privato: controllo del numero di nodi.
+    private static void checkNodes(long n) {
+        if (n < 0 || n > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Numero di nodi non valido.");
+        }
+    }
+
+    //Metodo privato: controllo del peso massimo.
+    private static void checkWeight(double maxWeight) {
+        if (!(maxWeight > 0) || Double.isInfinite(maxWeight)) {
+            throw new IllegalArgumentException("Il peso massimo deve essere positivo e finito.");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package it.unicam.cs.asdl2122.mp2;
+
+/*
+ * Metodi di appoggio per gli algoritmi che lavorano sugli indici dei nodi di
+ * un Graph<L> qualsiasi. Per AdjacencyMatrixUndirectedGraph usano le visite
+ * senza allocazioni della classe, per gli altri grafi ricadono sui metodi
+ * generali dell'interfaccia Graph<L>.
+ */
+final class GraphIndex {
+
+    private GraphIndex() {
+    }
+
+    //Array dei nodi del grafo, nella posizione i il nodo di indice i.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <L> GraphNode<L>[] nodesByIndex(Graph<L> g) {
+        GraphNode<L>[] nodi = (GraphNode<L>[]) new GraphNode[g.nodeCount()];
+        for (GraphNode<L> node : g.getNodes()) {
+            nodi[g.getNodeIndexOf(node)] = node;
+        }
+        return nodi;
+    }
+
+    //Visita i vicini del nodo di indice i come coppie (indice, peso).
+    static <L> void forEachNeighbor(Graph<L> g, int i, IntDoubleConsumer action) {
+        if (g instanceof AdjacencyMatrixUndirectedGraph) {
+            ((AdjacencyMatrixUndirectedGraph<L>) g).forEachNeighbor(i, action);
+            return;
+        }
+        for (GraphEdge<L> arco : g.getEdgesOf(i)) {
+            int uno = g.getNodeIndexOf(arco.getNode1());
+            action.accept(uno == i ? g.getNodeIndexOf(arco.getNode2()) : uno, arco.getWeight());
+        }
+    }
+
+    //Arco del grafo tra i nodi di indice u e v, dati anche come oggetti nodo.
+    static <L> GraphEdge<L> edgeOf(Graph<L> g, GraphNode<L>[] nodi, int u, int v) {
+        if (g instanceof AdjacencyMatrixUndirectedGraph) {
+            return ((AdjacencyMatrixUndirectedGraph<L>) g).edgeAt(u, v);
+        }
+        return g.getEdge(nodi[u], nodi[v]);
+    }
+
+    /*
+     * Controlla che il grafo sia non orientato, pesato e con pesi non negativi,
+     * con gli stessi messaggi di PrimMSP.
+     */
+    static <L> void checkWeighted(Graph<L> g) {
+        //Controllo se il grafo è orientato:
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("Il grafo è orientato.");
+        }
+        //Scorro tutti gli archi del grafo:
+        for (GraphEdge<L> arco : g.getEdges()) {
+            if (Double.isNaN(arco.getWeight()) || arco.getWeight() < 0 || arco.isDirected()) {
+                throw new IllegalArgumentException("Non è pesato o contiene pesi negativi.");
+            }
+        }
+    }
+
+    /*
+     * Etichetta ogni nodo con l'indice della sua componente connessa tramite
+     * visite in ampiezza. Le componenti sono numerate da 0 nell'ordine del
+     * loro nodo di indice minimo; il numero di componenti è nella posizione
+     * aggiuntiva n dell'array restituito.
+     */
+    static <L> int[] componentLabels(Graph<L> g) {
+        int n = g.nodeCount();
+        int[] etichette = new int[n + 1];
+        java.util.Arrays.fill(etichette, 0, n, -1);
+        int[] coda = new int[n];
+        int componenti = 0;
+        for (int radice = 0; radice < n; radice++) {
+            if (etichette[radice] >= 0) {
+                continue;
+            }
+            int c = componenti++;
+            int testa = 0;
+            int[] fine = {0};
+            coda[fine[0]++] = radice;
+            etichette[radice] = c;
+            while (testa < fine[0]) {
+                forEachNeighbor(g, coda[testa++], (v, peso) -> {
+                    if (etichette[v] < 0) {
+                        etichette[v] = c;
+                        coda[fine[0]++] = v;
+                    }
+                });
+            }
+        }
+        etichette[n] = componenti;
+        return etichette;
+    }
+}
@@ -0,0 +1,318 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Cache dei risultati di {@link KruskalMSP}, {@link PrimMSP} e
+ * {@link UndirectedGraphConnectedComponentsComputer}, per chi calcola più volte
+ * alberi di copertura minimi e componenti connesse di grafi che nel frattempo
+ * non cambiano.
+ *
+ * Un risultato è associato all'identità del grafo, alla sua versione (vedi
+ * {@link AdjacencyMatrixUndirectedGraph#getVersion()}), al tipo di calcolo e,
+ * per Prim, all'indice della sorgente. Ogni modifica del grafo cambia la
+ * versione, per cui i risultati precedenti non vengono più trovati e vengono
+ * rimossi alla prima richiesta successiva sullo stesso grafo. Il grafo è
+ * riferito con un {@link WeakReference}, quindi la cache non impedisce che un
+ * grafo non più usato venga raccolto. La memoria è limitata da un numero
+ * massimo di risultati, oltre il quale viene rimosso quello usato meno di
+ * recente (LRU).
+ *
+ * Solo i grafi {@link AdjacencyMatrixUndirectedGraph} hanno una versione: per
+ * gli altri grafi la cache non può sapere se sono cambiati, per cui i risultati
+ * vengono sempre ricalcolati e non salvati (e non contano né come successi né
+ * come fallimenti). I risultati restituiti sono immodificabili, perché sono
+ * condivisi tra tutti i chiamanti. La cache è thread-safe; due richieste
+ * concorrenti dello stesso risultato non ancora presente possono calcolarlo
+ * entrambe.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi dei grafi
+ */
+public class GraphResultCache<L> {
+
+    //Numero massimo di risultati di default.
+    public static final int DEFAULT_CAPACITY = 64;
+
+    //Tipi di calcolo.
+    private static final int KRUSKAL = 0;
+    private static final int PRIM = 1;
+    private static final int COMPONENTS = 2;
+
+    //Risultati in ordine di accesso, il primo è quello usato meno di recente.
+    private final LinkedHashMap<Key, Object> entries;
+
+    //Contatori delle richieste trovate e non trovate nella cache.
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Crea una cache con capacità {@link #DEFAULT_CAPACITY}.
+     */
+    public GraphResultCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Crea una cache con la capacità data.
+     *
+     * @param capacity
+     *                     il numero massimo di risultati conservati
+     * @throws IllegalArgumentException
+     *                                      se la capacità non è positiva
+     */
+    public GraphResultCache(int capacity) {
+        //Controllo se la capacità è positiva.
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacità deve essere positiva.");
+        }
+        this.entries = new LinkedHashMap<Key, Object>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Restituisce l'albero di copertura minimo calcolato con
+     * {@link KruskalMSP#computeMSP(Graph)}, dalla cache se il grafo non è
+     * cambiato dall'ultimo calcolo.
+     *
+     * @param g
+     *              un grafo non orientato, pesato, con pesi non negativi
+     * @return l'insieme (immodificabile) degli archi dell'albero di copertura
+     *         minimo
+     * @throws NullPointerException
+     *                                      se il grafo è nullo
+     * @throws IllegalArgumentException
+     *                                      se il grafo è orientato, non pesato
+     *                                      o con pesi negativi
+     */
+    @SuppressWarnings("unchecked")
+    public Set<GraphEdge<L>> kruskalMSP(Graph<L> g) {
+        //Controllo se il grafo passato è nullo.
+        if (g == null) {
+            throw new NullPointerException("Il grafo è null.");
+        }
+        Key key = keyOf(g, KRUSKAL, -1);
+        Object trovato = lookup(key);
+        if (trovato != null) {
+            return (Set<GraphEdge<L>>) trovato;
+        }
+        Set<GraphEdge<L>> risultato = Collections.unmodifiableSet(new KruskalMSP<L>().computeMSP(g));
+        store(key, g, risultato);
+        return risultato;
+    }
+
+    /**
+     * Restituisce l'albero di copertura minimo calcolato con
+     * {@link PrimMSP#computeMSPResult(Graph, GraphNode)} a partire dalla
+     * sorgente data, dalla cache se il grafo non è cambiato dall'ultimo calcolo
+     * con la stessa sorgente.
+     *
+     * @param g
+     *              un grafo non orientato, pesato, con pesi non negativi
+     * @param s
+     *              il nodo del grafo da cui partire
+     * @return l'albero di copertura minimo
+     * @throws NullPointerException
+     *                                      se almeno uno dei due parametri è
+     *                                      nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo non esiste nel grafo, o
+     *                                      se il grafo è orientato, non pesato
+     *                                      o con pesi negativi
+     */
+    @SuppressWarnings("unchecked")
+    public MSPResult<L> primMSP(Graph<L> g, GraphNode<L> s) {
+        //Controllo se almeno uno dei parametri è nullo.
+        if (g == null || s == null) {
+            throw new NullPointerException("Almeno uno dei parametri è nullo.");
+        }
+        Key key = keyOf(g, PRIM, g.getNodeIndexOf(s));
+        Object trovato = lookup(key);
+        if (trovato != null) {
+            return (MSPResult<L>) trovato;
+        }
+        MSPResult<L> risultato = new PrimMSP<L>().computeMSPResult(g, s);
+        store(key, g, risultato);
+        return risultato;
+    }
+
+    /**
+     * Restituisce le componenti connesse calcolate con
+     * {@link UndirectedGraphConnectedComponentsComputer#computeConnectedComponents(Graph)},
+     * dalla cache se il grafo non è cambiato dall'ultimo calcolo.
+     *
+     * @param g
+     *              un grafo non orientato
+     * @return l'insieme (immodificabile) delle componenti connesse, ognuna
+     *         rappresentata da un insieme (immodificabile) di nodi
+     * @throws NullPointerException
+     *                                      se il grafo è nullo
+     * @throws IllegalArgumentException
+     *                                      se il grafo è orientato
+     */
+    @SuppressWarnings("unchecked")
+    public Set<Set<GraphNode<L>>> connectedComponents(Graph<L> g) {
+        //Controllo se il grafo passato è nullo.
+        if (g == null) {
+            throw new NullPointerException("Il grafo è null.");
+        }
+        Key key = keyOf(g, COMPONENTS, -1);
+        Object trovato = lookup(key);
+        if (trovato != null) {
+            return (Set<Set<GraphNode<L>>>) trovato;
+        }
+        Set<Set<GraphNode<L>>> componenti = new UndirectedGraphConnectedComponentsComputer<L>()
+                .computeConnectedComponents(g);
+        Set<Set<GraphNode<L>>> immodificabili = new HashSet<>();
+        for (Set<GraphNode<L>> componente : componenti) {
+            immodificabili.add(Collections.unmodifiableSet(componente));
+        }
+        Set<Set<GraphNode<L>>> risultato = Collections.unmodifiableSet(immodificabili);
+        store(key, g, risultato);
+        return risultato;
+    }
+
+    /**
+     * @return il numero di richieste servite dalla cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return il numero di richieste che hanno richiesto un calcolo, su grafi
+     *         con versione
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return il numero di risultati attualmente conservati
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Rimuove tutti i risultati relativi al grafo dato.
+     *
+     * @param g
+     *              il grafo
+     */
+    public synchronized void invalidate(Graph<L> g) {
+        Iterator<Key> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            Object grafo = it.next().graph.get();
+            if (grafo == null || grafo == g) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Rimuove tutti i risultati e azzera i contatori.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        hits.reset();
+        misses.reset();
+    }
+
+    //Metodo privato: chiave per il grafo, null se il grafo non ha versione.
+    private Key keyOf(Graph<L> g, int kind, int source) {
+        if (!(g instanceof AdjacencyMatrixUndirectedGraph)) {
+            return null;
+        }
+        return new Key(g, ((AdjacencyMatrixUndirectedGraph<L>) g).getVersion(), kind, source);
+    }
+
+    //Metodo privato: cerca un risultato aggiornando i contatori.
+    private synchronized Object lookup(Key key) {
+        if (key == null) {
+            return null;
+        }
+        Object trovato = entries.get(key);
+        if (trovato != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return trovato;
+    }
+
+    /*
+     * Salva un risultato, se il grafo non è cambiato durante il calcolo, e
+     * rimuove quelli delle versioni precedenti dello stesso grafo e quelli dei
+     * grafi già raccolti.
+     */
+    private synchronized void store(Key key, Graph<L> g, Object risultato) {
+        if (key == null || ((AdjacencyMatrixUndirectedGraph<L>) g).getVersion() != key.version) {
+            return;
+        }
+        Iterator<Key> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            Key altra = it.next();
+            Object grafo = altra.graph.get();
+            if (grafo == null || grafo == g && altra.version != key.version) {
+                it.remove();
+            }
+        }
+        entries.put(key, risultato);
+    }
+
+    /*
+     * Chiave di un risultato: identità del grafo, versione, tipo di calcolo e
+     * sorgente (-1 se non serve).
+     */
+    private static final class Key {
+        private final WeakReference<Object> graph;
+        private final long version;
+        private final int kind;
+        private final int source;
+        private final int hash;
+
+        private Key(Object graph, long version, int kind, int source) {
+            this.graph = new WeakReference<>(graph);
+            this.version = version;
+            this.kind = kind;
+            this.source = source;
+            this.hash = ((System.identityHashCode(graph) * 31 + Long.hashCode(version)) * 31 + kind) * 31 + source;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            Object grafo = graph.get();
+            return grafo != null && grafo == other.graph.get() && version == other.version && kind == other.kind
+                    && source == other.source;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+
+/**
+ * Motore di visita di un grafo non orientato: livelli della visita in
+ * ampiezza, ordine della visita in profondità e raggiungibilità entro un
+ * numero massimo di archi.
+ *
+ * Alla creazione l'adiacenza del grafo viene copiata in una matrice di bit
+ * (una riga di {@code long} per nodo) e tutte le visite lavorano su insiemi di
+ * bit: la frontiera, i nodi visitati e la frontiera successiva. La visita in
+ * ampiezza è "direction-optimizing": finché la frontiera è piccola ogni nodo
+ * della frontiera scopre i suoi vicini non visitati (passo top-down, 64 vicini
+ * alla volta con un AND tra parole); quando gli archi uscenti dalla frontiera
+ * superano 1/{@link #ALPHA} di quelli dei nodi non visitati si passa al passo
+ * bottom-up, in cui ogni nodo non visitato cerca un vicino nella frontiera e si
+ * ferma al primo trovato. Si torna al passo top-down quando la frontiera scende
+ * sotto 1/{@link #BETA} dei nodi. Con frontiere ampie, tipiche dei grafi densi,
+ * il passo bottom-up legge molte meno celle della matrice di una visita con la
+ * coda.
+ *
+ * Se il grafo è un {@link AdjacencyMatrixUndirectedGraph} la copia viene
+ * rifatta automaticamente quando la versione del grafo cambia; per gli altri
+ * grafi bisogna creare un nuovo motore dopo ogni modifica. Il motore non è
+ * thread-safe.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class GraphTraversal<L> {
+
+    //Rapporto archi non visitati / archi della frontiera sotto cui si passa al bottom-up.
+    public static final int ALPHA = 14;
+
+    //Rapporto nodi / nodi della frontiera sopra cui si torna al top-down.
+    public static final int BETA = 24;
+
+    //Il grafo visitato.
+    private final Graph<L> g;
+
+    //Versione del grafo copiata, -1 se il grafo non ha versioni.
+    private long version;
+
+    //Numero di nodi e di parole per riga.
+    private int n;
+    private int words;
+
+    //Matrice di adiacenza a bit e grado di ogni nodo.
+    private long[][] adjacency;
+    private int[] degree;
+
+    /**
+     * Crea un motore di visita per il grafo dato.
+     *
+     * @param g
+     *              il grafo, non orientato
+     * @throws NullPointerException
+     *                                      se il grafo è nullo
+     * @throws IllegalArgumentException
+     *                                      se il grafo è orientato
+     */
+    public GraphTraversal(Graph<L> g) {
+        //Controllo se il grafo passato è nullo.
+        if (g == null) {
+            throw new NullPointerException("Il grafo è null.");
+        }
+        //Controllo se il grafo è orientato.
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("Il grafo è orientato.");
+        }
+        this.g = g;
+        load();
+    }
+
+    /**
+     * Visita in ampiezza a partire da un nodo.
+     *
+     * @param source
+     *                   l'indice del nodo di partenza
+     * @return per ogni nodo il numero minimo di archi che lo separano dalla
+     *         sorgente, -1 se non è raggiungibile
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non corrisponde a
+     *                                       nessun nodo
+     */
+    public int[] bfsLevels(int source) {
+        ensureCurrent();
+        checkIndex(source);
+        int[] livelli = new int[n];
+        Arrays.fill(livelli, -1);
+        bfs(source, Integer.MAX_VALUE, livelli, -1);
+        return livelli;
+    }
+
+    /**
+     * @param source
+     *                    l'indice del nodo di partenza
+     * @param maxHops
+     *                    numero massimo di archi
+     * @return l'insieme degli indici dei nodi raggiungibili dalla sorgente con
+     *         al più maxHops archi, sorgente compresa
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non corrisponde a
+     *                                       nessun nodo
+     * @throws IllegalArgumentException
+     *                                       se maxHops è negativo
+     */
+    public BitSet reachableWithin(int source, int maxHops) {
+        ensureCurrent();
+        checkIndex(source);
+        checkHops(maxHops);
+        return BitSet.valueOf(bfs(source, maxHops, null, -1));
+    }
+
+    /**
+     * @param source
+     *                    l'indice del nodo di partenza
+     * @param target
+     *                    l'indice del nodo di arrivo
+     * @param maxHops
+     *                    numero massimo di archi
+     * @return true se target è raggiungibile da source con al più maxHops
+     *         archi; la visita si ferma appena target viene raggiunto
+     * @throws IndexOutOfBoundsException
+     *                                       se almeno uno dei due indici non
+     *                                       corrisponde a nessun nodo
+     * @throws IllegalArgumentException
+     *                                       se maxHops è negativo
+     */
+    public boolean isReachable(int source, int target, int maxHops) {
+        ensureCurrent();
+        checkIndex(source);
+        checkIndex(target);
+        checkHops(maxHops);
+        long[] visitati = bfs(source, maxHops, null, target);
+        return (visitati[target >>> 6] & (1L << target)) != 0;
+    }
+
+    /**
+     * Visita in profondità a partire da un nodo. Tra i vicini non ancora
+     * visitati di un nodo viene scelto ogni volta quello di indice minimo.
+     *
+     * @param source
+     *                   l'indice del nodo di partenza
+     * @return gli indici dei nodi raggiungibili dalla sorgente in ordine di
+     *         scoperta (preordine)
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non corrisponde a
+     *                                       nessun nodo
+     */
+    public int[] dfsOrder(int source) {
+        ensureCurrent();
+        checkIndex(source);
+        long[] visitati = new long[words];
+        int[] ordine = new int[n];
+        int[] pila = new int[n];
+        //Per ogni nodo sulla pila, la parola da cui riprendere la ricerca dei vicini.
+        int[] parola = new int[n];
+        int trovati = 0;
+        int cima = 0;
+        visitati[source >>> 6] |= 1L << source;
+        ordine[trovati++] = source;
+        pila[cima++] = source;
+        while (cima > 0) {
+            int u = pila[cima - 1];
+            long[] riga = adjacency[u];
+            int w = parola[u];
+            long candidati = 0;
+            //Primo vicino non visitato: 64 vicini alla volta.
+            while (w < words && (candidati = riga[w] & ~visitati[w]) == 0) {
+                w++;
+            }
+            parola[u] = w;
+            if (w == words) {
+                cima--;
+                continue;
+            }
+            int v = (w << 6) + Long.numberOfTrailingZeros(candidati);
+            visitati[w] |= Long.lowestOneBit(candidati);
+            ordine[trovati++] = v;
+            pila[cima++] = v;
+        }
+        return Arrays.copyOf(ordine, trovati);
+    }
+
+    /*
+     * Visita in ampiezza con al più maxHops livelli. Se livelli non è nullo vi
+     * scrive il livello dei nodi scoperti; se target >= 0 si ferma appena
+     * target viene scoperto. Restituisce l'insieme dei nodi visitati.
+     */
+    private long[] bfs(int source, int maxHops, int[] livelli, int target) {
+        long[] visitati = new long[words];
+        long[] frontiera = new long[words];
+        long[] successiva = new long[words];
+        visitati[source >>> 6] |= 1L << source;
+        frontiera[source >>> 6] |= 1L << source;
+        if (livelli != null) {
+            livelli[source] = 0;
+        }
+        int nodiFrontiera = 1;
+        long archiFrontiera = degree[source];
+        //Archi dei nodi non ancora visitati (ogni arco contato da entrambi gli estremi).
+        long archiNonVisitati = 0;
+        for (int i = 0; i < n; i++) {
+            archiNonVisitati += degree[i];
+        }
+        archiNonVisitati -= degree[source];
+        boolean bottomUp = false;
+        for (int livello = 1; livello <= maxHops && nodiFrontiera > 0 && source != target; livello++) {
+            if (!bottomUp && archiFrontiera > archiNonVisitati / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && nodiFrontiera < n / BETA) {
+                bottomUp = false;
+            }
+            Arrays.fill(successiva, 0);
+            if (bottomUp) {
+                bottomUpStep(frontiera, visitati, successiva);
+            } else {
+                topDownStep(frontiera, visitati, successiva);
+            }
+            //Aggiorno i visitati, i contatori e i livelli dei nodi scoperti:
+            nodiFrontiera = 0;
+            archiFrontiera = 0;
+            for (int w = 0; w < words; w++) {
+                long parola = successiva[w];
+                visitati[w] |= parola;
+                nodiFrontiera += Long.bitCount(parola);
+                while (parola != 0) {
+                    int v = (w << 6) + Long.numberOfTrailingZeros(parola);
+                    parola &= parola - 1;
+                    archiFrontiera += degree[v];
+                    if (livelli != null) {
+                        livelli[v] = livello;
+                    }
+                }
+            }
+            archiNonVisitati -= archiFrontiera;
+            if (target >= 0 && (successiva[target >>> 6] & (1L << target)) != 0) {
+                break;
+            }
+            long[] scambio = frontiera;
+            frontiera = successiva;
+            successiva = scambio;
+        }
+        return visitati;
+    }
+
+    //Metodo privato: ogni nodo della frontiera scopre i suoi vicini non visitati.
+    private void topDownStep(long[] frontiera, long[] visitati, long[] successiva) {
+        for (int fw = 0; fw < words; fw++) {
+            long parola = frontiera[fw];
+            while (parola != 0) {
+                int u = (fw << 6) + Long.numberOfTrailingZeros(parola);
+                parola &= parola - 1;
+                long[] riga = adjacency[u];
+                for (int w = 0; w < words; w++) {
+                    successiva[w] |= riga[w] & ~visitati[w];
+                }
+            }
+        }
+    }
+
+    //Metodo privato: ogni nodo non visitato cerca un vicino nella frontiera.
+    private void bottomUpStep(long[] frontiera, long[] visitati, long[] successiva) {
+        for (int vw = 0; vw < words; vw++) {
+            long nonVisitati = ~visitati[vw];
+            if (vw == words - 1 && (n & 63) != 0) {
+                nonVisitati &= (1L << n) - 1;
+            }
+            while (nonVisitati != 0) {
+                int v = (vw << 6) + Long.numberOfTrailingZeros(nonVisitati);
+                long bit = Long.lowestOneBit(nonVisitati);
+                nonVisitati &= nonVisitati - 1;
+                long[] riga = adjacency[v];
+                for (int w = 0; w < words; w++) {
+                    if ((riga[w] & frontiera[w]) != 0) {
+                        successiva[vw] |= bit;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    //Metodo privato: ricopia l'adiacenza se il grafo è cambiato.
+    private void ensureCurrent() {
+        if (g instanceof AdjacencyMatrixUndirectedGraph
+                && ((AdjacencyMatrixUndirectedGraph<L>) g).getVersion() != version) {
+            load();
+        }
+    }
+
+    //Metodo privato: copia l'adiacenza del grafo nella matrice di bit.
+    private void load() {
+        version = g instanceof AdjacencyMatrixUndirectedGraph ? ((AdjacencyMatrixUndirectedGraph<L>) g).getVersion() : -1;
+        n = g.nodeCount();
+        words = Math.max(1, (n + 63) >>> 6);
+        adjacency = new long[n][words];
+        degree = new int[n];
+        for (int i = 0; i < n; i++) {
+            long[] riga = adjacency[i];
+            GraphIndex.forEachNeighbor(g, i, (v, peso) -> riga[v >>> 6] |= 1L << v);
+            for (long parola : riga) {
+                degree[i] += Long.bitCount(parola);
+            }
+        }
+    }
+
+    //Metodo privato: controllo dell'indice di un nodo.
+    private void checkIndex(int i) {
+        if (i < 0 || i > n - 1) {
+            throw new IndexOutOfBoundsException("L'indice passato non corrisponde a nessun nodo o è fuori dai limiti dell'intervallo.");
+        }
+    }
+
+    //Metodo privato: controllo del numero massimo di archi.
+    private void checkHops(int maxHops) {
+        if (maxHops < 0) {
+            throw new IllegalArgumentException("Il numero massimo di archi non può essere negativo.");
+        }
+    }
+}
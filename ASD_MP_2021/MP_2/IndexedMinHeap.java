@@ -0,0 +1,143 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/*
+ * Coda di min priorità indicizzata su interi 0..capacity-1 (tipicamente indici
+ * di nodi) con priorità double, realizzata con uno heap binario su array.
+ * Inserimento, estrazione del minimo e decremento della priorità costano
+ * O(log n), la ricerca di un elemento O(1). La coda non crea oggetti dopo la
+ * costruzione e può essere svuotata e riusata.
+ */
+final class IndexedMinHeap {
+
+    //Heap: elementi e relative priorità, nelle prime size posizioni.
+    private final int[] heap;
+    private final double[] keys;
+
+    //Posizione di ogni elemento nello heap, -1 se non presente.
+    private final int[] position;
+
+    private int size;
+
+    IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.keys = new double[capacity];
+        this.position = new int[capacity];
+        Arrays.fill(position, -1);
+        this.size = 0;
+    }
+
+    int capacity() {
+        return position.length;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int item) {
+        return position[item] >= 0;
+    }
+
+    //Priorità dell'elemento, valida solo se l'elemento è presente.
+    double keyOf(int item) {
+        return keys[position[item]];
+    }
+
+    //Priorità minima, valida solo se la coda non è vuota.
+    double minKey() {
+        return keys[0];
+    }
+
+    //Inserisce l'elemento o, se presente, ne diminuisce la priorità (se minore).
+    void insertOrDecrease(int item, double key) {
+        int p = position[item];
+        if (p < 0) {
+            p = size++;
+            heap[p] = item;
+            keys[p] = key;
+            position[item] = p;
+            siftUp(p);
+        } else if (key < keys[p]) {
+            keys[p] = key;
+            siftUp(p);
+        }
+    }
+
+    //Estrae l'elemento con priorità minima.
+    int extractMin() {
+        if (size == 0) {
+            throw new NoSuchElementException("La coda è vuota.");
+        }
+        int minimo = heap[0];
+        position[minimo] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            keys[0] = keys[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return minimo;
+    }
+
+    //Svuota la coda in O(size).
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int p) {
+        int item = heap[p];
+        double key = keys[p];
+        while (p > 0) {
+            int padre = (p - 1) >>> 1;
+            if (keys[padre] <= key) {
+                break;
+            }
+            move(padre, p);
+            p = padre;
+        }
+        place(item, key, p);
+    }
+
+    private void siftDown(int p) {
+        int item = heap[p];
+        double key = keys[p];
+        while (true) {
+            int figlio = 2 * p + 1;
+            if (figlio >= size) {
+                break;
+            }
+            if (figlio + 1 < size && keys[figlio + 1] < keys[figlio]) {
+                figlio++;
+            }
+            if (keys[figlio] >= key) {
+                break;
+            }
+            move(figlio, p);
+            p = figlio;
+        }
+        place(item, key, p);
+    }
+
+    private void move(int da, int a) {
+        heap[a] = heap[da];
+        keys[a] = keys[da];
+        position[heap[a]] = a;
+    }
+
+    private void place(int item, double key, int p) {
+        heap[p] = item;
+        keys[p] = key;
+        position[item] = p;
+    }
+}
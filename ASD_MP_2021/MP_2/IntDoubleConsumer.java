@@ -0,0 +1,23 @@
+package it.unicam.cs.asdl2122.mp2;
+
+/**
+ * Operazione che accetta un intero e un double senza bisogno di boxing. Viene
+ * usata per visitare i vicini di un nodo come coppie (indice del vicino, peso
+ * dell'arco) senza creare oggetti.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ */
+@FunctionalInterface
+public interface IntDoubleConsumer {
+
+    /**
+     * Esegue l'operazione sulla coppia data.
+     *
+     * @param value
+     *                   il valore intero, tipicamente l'indice di un nodo
+     * @param weight
+     *                   il valore double, tipicamente il peso di un arco (NaN
+     *                   se l'arco non è pesato)
+     */
+    void accept(int value, double weight);
+}
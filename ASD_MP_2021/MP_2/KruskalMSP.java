@@ -1,5 +1,6 @@
 package it.unicam.cs.asdl2122.mp2;
 
+import java.io.*;
 import java.util.*;
 
 
@@ -26,6 +27,28 @@ public class KruskalMSP<L> {
      */
     private ForestDisjointSets<GraphNode<L>> disjointSets;
 
+    /*
+     * Dimensione in byte di un arco scritto su file nella modalità a memoria
+     * esterna: indice del primo nodo (int), indice del secondo nodo (int) e
+     * peso (double).
+     */
+    private static final int RECORD_SIZE = 16;
+
+    //Budget di memoria di default per la modalità esterna (64 MB).
+    private static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    //Dimensione massima in byte del buffer di ogni file temporaneo aperto.
+    private static final int MAX_IO_BUFFER = 1 << 16;
+
+    /*
+     * Budget di memoria (in byte) della modalità esterna: comprende sia la run
+     * ordinata in memoria sia i buffer dei file temporanei aperti.
+     */
+    private final long memoryBudget;
+
+    //Cartella dei file temporanei, se null si usa quella di sistema.
+    private final File tempDirectory;
+
     //Classe interna Comparatore:
     private class EdgeComparator implements Comparator<GraphEdge<L>>{
         //Metodo interno compare, confronta il peso di due archi.
@@ -43,7 +66,35 @@ public class KruskalMSP<L> {
      * l'algoritmo di Kruskal su un grafo non orientato e pesato.
      */
     public KruskalMSP() {
+        this(DEFAULT_MEMORY_BUDGET, null);
+    }
+
+    /**
+     * Costruisce un calcolatore di un albero di copertura minimo che usa
+     * l'algoritmo di Kruskal e che, nella modalità a memoria esterna (si veda
+     * {@link #computeMSPExternal(Graph)}), ordina gli archi in run di al più
+     * {@code memoryBudget} byte scaricate su file temporanei e le fonde
+     * aprendo solo tanti file quanti ne stanno, con i loro buffer, nello
+     * stesso budget.
+     *
+     * @param memoryBudget
+     *                          byte utilizzabili per ordinare in memoria una
+     *                          run di archi o per i buffer dei file fusi
+     * @param tempDirectory
+     *                          cartella in cui creare i file temporanei, se
+     *                          null viene usata quella di sistema
+     * @throws IllegalArgumentException
+     *                                      se il budget non permette di
+     *                                      contenere almeno un arco
+     */
+    public KruskalMSP(long memoryBudget, File tempDirectory) {
+        //Controllo se il budget basta almeno per un arco.
+        if (memoryBudget < RECORD_SIZE) {
+            throw new IllegalArgumentException("Il budget di memoria è troppo piccolo.");
+        }
         this.disjointSets = new ForestDisjointSets<GraphNode<L>>();
+        this.memoryBudget = memoryBudget;
+        this.tempDirectory = tempDirectory;
     }
 
     /**
@@ -93,4 +144,591 @@ public class KruskalMSP<L> {
         }
         return archi;
     }
+
+    /**
+     * Variante dell'algoritmo di Kruskal pensata per grafi con molti archi. Gli
+     * archi non vengono copiati tutti in un insieme, ma vengono visitati nodo
+     * per nodo e raccolti in run di dimensione fissata dal budget di memoria;
+     * ogni run viene ordinata e scritta su un file temporaneo come sequenza di
+     * record binari (indice, indice, peso). Le run vengono poi fuse (k-way
+     * merge) direttamente dentro il ciclo delle union. Il numero di file
+     * aperti insieme (il ventaglio della fusione) è limitato in modo che i
+     * loro buffer stiano nel budget di memoria: se le run sono di più vengono
+     * prima fuse a gruppi in run più lunghe, in più passate, finché non
+     * restano al più tante run quante ne può aprire l'ultima fusione. In
+     * memoria restano quindi solo gli insiemi disgiunti dei nodi (due array di
+     * interi, padre e rango) più, al massimo, il budget: una run alla volta
+     * oppure i buffer dei file fusi. Se tutti gli archi stanno in una sola run
+     * non viene creato alcun file.
+     *
+     * @param g
+     *              un grafo non orientato, pesato, con pesi non negativi
+     * @return l'insieme degli archi del grafo g che costituiscono l'albero di
+     *         copertura minimo trovato
+     * @throw NullPointerException se il grafo g è null
+     * @throw IllegalArgumentException se il grafo g è orientato, non pesato o
+     *        con pesi negativi
+     * @throw UncheckedIOException se non è possibile scrivere o leggere i file
+     *        temporanei
+     */
+    public Set<GraphEdge<L>> computeMSPExternal(Graph<L> g) {
+        //Controllo se il grafo passato è nullo.
+        if (g == null) {
+            throw new NullPointerException("Il grafo è null.");
+        }
+        //Controllo se il grafo è orientato.
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("Il grafo è orientato.");
+        }
+        //Array dei nodi indicizzato come il grafo, serve per ricostruire gli archi dai record.
+        GraphNode<L>[] nodi = GraphIndex.nodesByIndex(g);
+        //Insiemi disgiunti sugli indici: padre e rango.
+        int[] padre = new int[nodi.length];
+        int[] rango = new int[nodi.length];
+        for (int i = 0; i < nodi.length; i++) {
+            padre[i] = i;
+        }
+        //Numero massimo di archi per ogni run, lasciando spazio al buffer di scrittura.
+        int buffer = ioBufferSize();
+        int lunghezzaRun = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (memoryBudget - buffer) / RECORD_SIZE));
+        lunghezzaRun = Math.min(lunghezzaRun, Math.max(1, g.edgeCount()));
+        int[] runU = new int[lunghezzaRun];
+        int[] runV = new int[lunghezzaRun];
+        double[] runW = new double[lunghezzaRun];
+        List<File> files = new ArrayList<>();
+        List<RunReader> readers = new ArrayList<>();
+        try {
+            //Scorro gli archi nodo per nodo e li scarico su file a blocchi ordinati:
+            int dimensione = collectRuns(g, runU, runV, runW, files);
+            Set<GraphEdge<L>> archi = new HashSet<>();
+            //Caso semplice: tutti gli archi sono in memoria, non serve nessun file.
+            if (files.isEmpty()) {
+                sortRun(runU, runV, runW, dimensione);
+                for (int i = 0; i < dimensione && archi.size() < nodi.length - 1; i++) {
+                    unisci(g, nodi, padre, rango, runU[i], runV[i], archi);
+                }
+                return archi;
+            }
+            //Scarico anche l'ultima run, poi libero i buffer prima della fusione.
+            if (dimensione > 0) {
+                files.add(spill(runU, runV, runW, dimensione));
+            }
+            runU = null;
+            runV = null;
+            runW = null;
+            //Fusioni intermedie, finché le run sono più del ventaglio:
+            int ventaglio = (int) Math.max(2, Math.min(Integer.MAX_VALUE, memoryBudget / buffer - 1));
+            List<File> runs = new ArrayList<>(files);
+            while (runs.size() > ventaglio) {
+                List<File> successive = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += ventaglio) {
+                    List<File> gruppo = runs.subList(i, Math.min(runs.size(), i + ventaglio));
+                    if (gruppo.size() == 1) {
+                        successive.add(gruppo.get(0));
+                        continue;
+                    }
+                    File fuso = File.createTempFile("kruskal-run", ".bin", tempDirectory);
+                    files.add(fuso);
+                    mergeRuns(gruppo, fuso, buffer);
+                    for (File file : gruppo) {
+                        file.delete();
+                    }
+                    successive.add(fuso);
+                }
+                runs = successive;
+            }
+            //Ultima fusione tramite una coda con priorità sul peso corrente:
+            PriorityQueue<RunReader> coda = new PriorityQueue<>(runs.size());
+            for (File file : runs) {
+                RunReader reader = new RunReader(file, buffer);
+                readers.add(reader);
+                if (reader.advance()) {
+                    coda.add(reader);
+                }
+            }
+            while (!coda.isEmpty() && archi.size() < nodi.length - 1) {
+                RunReader minimo = coda.poll();
+                unisci(g, nodi, padre, rango, minimo.u, minimo.v, archi);
+                if (minimo.advance()) {
+                    coda.add(minimo);
+                }
+            }
+            return archi;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Errore nella gestione dei file temporanei.", e);
+        } finally {
+            //Chiudo i reader e cancello i file temporanei.
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Variante dell'algoritmo di Kruskal che lavora sugli indici dei nodi e
+     * restituisce l'albero in forma compatta, come {@link MSPResult}, lo stesso
+     * tipo restituito da {@link PrimMSP#computeMSPResult(Graph, GraphNode)}.
+     * Gli archi sono copiati in array primitivi e ordinati per peso, e gli
+     * insiemi disgiunti sono due array di interi (padre e rango) invece di
+     * oggetti. Se il grafo non è connesso il risultato è una foresta: ogni
+     * albero è radicato nel suo nodo di indice minimo. Lo stato del
+     * calcolatore non viene usato, per cui il metodo può essere chiamato in
+     * parallelo.
+     *
+     * @param g
+     *              un grafo non orientato, pesato, con pesi non negativi
+     * @return l'albero (o la foresta) di copertura minimo
+     * @throw NullPointerException se il grafo g è null
+     * @throw IllegalArgumentException se il grafo g è orientato, non pesato o
+     *        con pesi negativi
+     */
+    public MSPResult<L> computeMSPResult(Graph<L> g) {
+        //Controllo se il grafo passato è nullo.
+        if (g == null) {
+            throw new NullPointerException("Il grafo è null.");
+        }
+        GraphIndex.checkWeighted(g);
+        int n = g.nodeCount();
+        int m = g.edgeCount();
+        int[] u = new int[Math.max(1, m)];
+        int[] v = new int[Math.max(1, m)];
+        double[] w = new double[Math.max(1, m)];
+        int archi = sortedEdges(g, u, v, w);
+        //Insiemi disgiunti sugli indici: padre e rango.
+        int[] padre = new int[n];
+        int[] rango = new int[n];
+        for (int i = 0; i < n; i++) {
+            padre[i] = i;
+        }
+        int scelti = 0;
+        for (int k = 0; k < archi && scelti < n - 1; k++) {
+            int a = find(padre, u[k]);
+            int b = find(padre, v[k]);
+            if (a != b) {
+                //Unione per rango:
+                if (rango[a] < rango[b]) {
+                    padre[a] = b;
+                } else {
+                    padre[b] = a;
+                    if (rango[a] == rango[b]) {
+                        rango[a]++;
+                    }
+                }
+                //Gli archi scelti vengono compattati all'inizio degli array.
+                u[scelti] = u[k];
+                v[scelti] = v[k];
+                w[scelti++] = w[k];
+            }
+        }
+        return MSPResult.fromEdges(GraphIndex.nodesByIndex(g), u, v, w, scelti);
+    }
+
+    /**
+     * Clustering single-linkage con k cluster: il ciclo di Kruskal di
+     * {@link #computeMSPResult(Graph)} viene fermato appena restano k insiemi
+     * disgiunti, e gli insiemi sono i cluster. Equivale a togliere i k - 1
+     * archi più pesanti dall'albero di copertura minimo, senza doverlo
+     * costruire. Se il grafo ha più di k componenti connesse i cluster sono le
+     * componenti connesse.
+     *
+     * @param g
+     *              un grafo non orientato, pesato, con pesi non negativi
+     * @param k
+     *              il numero di cluster
+     * @return i cluster, numerati nell'ordine del loro nodo di indice minimo
+     * @throw NullPointerException se il grafo g è null
+     * @throw IllegalArgumentException se il grafo g è orientato, non pesato o
+     *        con pesi negativi, o se k non è tra 1 e il numero di nodi
+     */
+    public ConnectedComponents<L> computeKClusters(Graph<L> g, int k) {
+        //Controllo se il grafo passato è nullo.
+        if (g == null) {
+            throw new NullPointerException("Il grafo è null.");
+        }
+        GraphIndex.checkWeighted(g);
+        if (k < 1 || k > g.nodeCount()) {
+            throw new IllegalArgumentException("Il numero di cluster deve essere tra 1 e il numero di nodi.");
+        }
+        return clusters(g, g.nodeCount() - k, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Clustering single-linkage con soglia di distanza: il ciclo di Kruskal
+     * unisce solo gli archi di peso minore o uguale alla soglia e si ferma al
+     * primo arco più pesante. Due nodi finiscono nello stesso cluster se e
+     * solo se sono collegati da un cammino di archi non più pesanti della
+     * soglia.
+     *
+     * @param g
+     *                        un grafo non orientato, pesato, con pesi non
+     *                        negativi
+     * @param maxDistance
+     *                        la soglia
+     * @return i cluster, numerati nell'ordine del loro nodo di indice minimo
+     * @throw NullPointerException se il grafo g è null
+     * @throw IllegalArgumentException se il grafo g è orientato, non pesato o
+     *        con pesi negativi, o se la soglia è NaN
+     */
+    public ConnectedComponents<L> computeThresholdClusters(Graph<L> g, double maxDistance) {
+        //Controllo se il grafo passato è nullo.
+        if (g == null) {
+            throw new NullPointerException("Il grafo è null.");
+        }
+        GraphIndex.checkWeighted(g);
+        if (Double.isNaN(maxDistance)) {
+            throw new IllegalArgumentException("La soglia non è un numero.");
+        }
+        return clusters(g, Math.max(0, g.nodeCount() - 1), maxDistance);
+    }
+
+    /**
+     * Calcola il dendrogramma completo del clustering single-linkage: le
+     * fusioni eseguite dal ciclo di Kruskal, nell'ordine degli archi, con le
+     * loro altezze. Il dendrogramma può poi essere tagliato per numero di
+     * cluster o per altezza senza ripetere l'ordinamento degli archi.
+     *
+     * @param g
+     *              un grafo non orientato, pesato, con pesi non negativi
+     * @return il dendrogramma
+     * @throw NullPointerException se il grafo g è null
+     * @throw IllegalArgumentException se il grafo g è orientato, non pesato o
+     *        con pesi negativi
+     */
+    public Dendrogram<L> computeDendrogram(Graph<L> g) {
+        //Controllo se il grafo passato è nullo.
+        if (g == null) {
+            throw new NullPointerException("Il grafo è null.");
+        }
+        GraphIndex.checkWeighted(g);
+        int n = g.nodeCount();
+        int m = g.edgeCount();
+        int[] u = new int[Math.max(1, m)];
+        int[] v = new int[Math.max(1, m)];
+        double[] w = new double[Math.max(1, m)];
+        int archi = sortedEdges(g, u, v, w);
+        int[] padre = new int[n];
+        int[] sinistro = new int[Math.max(0, n - 1)];
+        int[] destro = new int[Math.max(0, n - 1)];
+        double[] altezza = new double[Math.max(0, n - 1)];
+        int fusioni = singleLinkage(u, v, w, archi, padre, n - 1, Double.POSITIVE_INFINITY, sinistro, destro,
+                altezza);
+        return new Dendrogram<>(GraphIndex.nodesByIndex(g), sinistro, destro, altezza, fusioni);
+    }
+
+    //Metodo privato: cluster dopo al più maxMerges unioni di archi non più pesanti di maxDistance.
+    private static <L> ConnectedComponents<L> clusters(Graph<L> g, int maxMerges, double maxDistance) {
+        int m = g.edgeCount();
+        int[] u = new int[Math.max(1, m)];
+        int[] v = new int[Math.max(1, m)];
+        double[] w = new double[Math.max(1, m)];
+        int archi = sortedEdges(g, u, v, w);
+        int[] padre = new int[g.nodeCount()];
+        singleLinkage(u, v, w, archi, padre, maxMerges, maxDistance, null, null, null);
+        return ConnectedComponents.fromForest(GraphIndex.nodesByIndex(g), padre);
+    }
+
+    /*
+     * Ciclo di Kruskal sugli archi ordinati, con insiemi disgiunti sugli
+     * indici (padre viene inizializzato qui): si ferma dopo maxMerges unioni o
+     * al primo arco più pesante di maxDistance. Se left non è null registra
+     * ogni fusione (cluster fusi e altezza, con la numerazione di Dendrogram).
+     * Restituisce il numero di unioni eseguite.
+     */
+    private static int singleLinkage(int[] u, int[] v, double[] w, int archi, int[] padre, int maxMerges,
+            double maxDistance, int[] left, int[] right, double[] height) {
+        int n = padre.length;
+        int[] rango = new int[n];
+        //Cluster corrente di ogni radice, serve solo per il dendrogramma.
+        int[] cluster = left == null ? null : new int[n];
+        for (int i = 0; i < n; i++) {
+            padre[i] = i;
+            if (cluster != null) {
+                cluster[i] = i;
+            }
+        }
+        int fusioni = 0;
+        for (int k = 0; k < archi && fusioni < maxMerges; k++) {
+            if (Double.compare(w[k], maxDistance) > 0) {
+                break;
+            }
+            int a = find(padre, u[k]);
+            int b = find(padre, v[k]);
+            if (a == b) {
+                continue;
+            }
+            int radice;
+            //Unione per rango:
+            if (rango[a] < rango[b]) {
+                padre[a] = b;
+                radice = b;
+            } else {
+                padre[b] = a;
+                radice = a;
+                if (rango[a] == rango[b]) {
+                    rango[a]++;
+                }
+            }
+            if (cluster != null) {
+                left[fusioni] = Math.min(cluster[a], cluster[b]);
+                right[fusioni] = Math.max(cluster[a], cluster[b]);
+                height[fusioni] = w[k];
+                cluster[radice] = n + fusioni;
+            }
+            fusioni++;
+        }
+        return fusioni;
+    }
+
+    /*
+     * Copia gli archi del grafo (ognuno una volta sola e senza cappi) come
+     * terne (u, v, peso) negli array, ordinandoli per peso crescente.
+     * Restituisce il numero di archi. Usato anche da GraphAlgorithms.
+     */
+    static <L> int sortedEdges(Graph<L> g, int[] u, int[] v, double[] w) {
+        int[] archi = {0};
+        for (int i = 0; i < g.nodeCount(); i++) {
+            int x = i;
+            GraphIndex.forEachNeighbor(g, i, (y, peso) -> {
+                if (y > x) {
+                    u[archi[0]] = x;
+                    v[archi[0]] = y;
+                    w[archi[0]++] = peso;
+                }
+            });
+        }
+        sortRun(u, v, w, archi[0]);
+        return archi[0];
+    }
+
+    //Rappresentante di i, dimezzando il cammino (usato anche da ConnectedComponents e Dendrogram).
+    static int find(int[] padre, int i) {
+        while (padre[i] != i) {
+            padre[i] = padre[padre[i]];
+            i = padre[i];
+        }
+        return i;
+    }
+
+    /*
+     * Metodo privato: visita gli archi del grafo nodo per nodo (ognuno una
+     * volta sola, dal suo estremo di indice minore) controllandone il peso, e
+     * li raccoglie, cappi esclusi, nelle run, scaricando su file ogni run
+     * piena. Restituisce il numero di archi rimasti nell'ultima run, non
+     * ancora scaricata.
+     */
+    private int collectRuns(Graph<L> g, int[] runU, int[] runV, double[] runW, List<File> files)
+            throws IOException {
+        int[] dimensione = {0};
+        try {
+            for (int i = 0; i < g.nodeCount(); i++) {
+                int x = i;
+                GraphIndex.forEachNeighbor(g, i, (y, peso) -> {
+                    //Ogni arco viene visto da entrambi gli estremi: lo considero da quello minore.
+                    if (y < x) {
+                        return;
+                    }
+                    //Controllo per ogni arco, cappi compresi, se non è pesato o è composto da pesi negativi:
+                    if (Double.isNaN(peso) || peso < 0) {
+                        throw new IllegalArgumentException("Non è pesato o contiene pesi negativi.");
+                    }
+                    //I cappi non entrano mai nell'albero e non vanno nelle run.
+                    if (y == x) {
+                        return;
+                    }
+                    if (dimensione[0] == runU.length) {
+                        try {
+                            files.add(spill(runU, runV, runW, dimensione[0]));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        dimensione[0] = 0;
+                    }
+                    runU[dimensione[0]] = x;
+                    runV[dimensione[0]] = y;
+                    runW[dimensione[0]++] = peso;
+                });
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return dimensione[0];
+    }
+
+    /*
+     * Metodo privato: un passo del ciclo di Kruskal sull'arco (u, v). L'arco
+     * aggiunto è l'oggetto memorizzato nel grafo, come in computeMSP.
+     */
+    private static <L> void unisci(Graph<L> g, GraphNode<L>[] nodi, int[] padre, int[] rango, int u, int v,
+            Set<GraphEdge<L>> archi) {
+        int a = find(padre, u);
+        int b = find(padre, v);
+        //Controllo se i rappresentanti dei due nodi di quell'arco sono diversi:
+        if (a != b) {
+            archi.add(GraphIndex.edgeOf(g, nodi, u, v));
+            //Unione per rango:
+            if (rango[a] < rango[b]) {
+                padre[a] = b;
+            } else {
+                padre[b] = a;
+                if (rango[a] == rango[b]) {
+                    rango[a]++;
+                }
+            }
+        }
+    }
+
+    //Metodo privato: ordina la run e la scrive su un file temporaneo.
+    private File spill(int[] u, int[] v, double[] w, int n) throws IOException {
+        sortRun(u, v, w, n);
+        File file = File.createTempFile("kruskal-run", ".bin", tempDirectory);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), ioBufferSize()))) {
+            out.writeInt(n);
+            for (int i = 0; i < n; i++) {
+                out.writeInt(u[i]);
+                out.writeInt(v[i]);
+                out.writeDouble(w[i]);
+            }
+        } catch (IOException e) {
+            file.delete();
+            throw e;
+        }
+        return file;
+    }
+
+    /*
+     * Metodo privato: fonde le run ordinate del gruppo in un'unica run ordinata
+     * scritta sul file dato. Sono aperti insieme solo i file del gruppo, ognuno
+     * con un buffer della dimensione data, più il file di uscita.
+     */
+    private static void mergeRuns(List<File> gruppo, File fuso, int buffer) throws IOException {
+        List<RunReader> readers = new ArrayList<>(gruppo.size());
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(fuso), buffer))) {
+            int totale = 0;
+            for (File file : gruppo) {
+                RunReader reader = new RunReader(file, buffer);
+                readers.add(reader);
+                totale += reader.rimanenti;
+            }
+            out.writeInt(totale);
+            PriorityQueue<RunReader> coda = new PriorityQueue<>(readers.size());
+            for (RunReader reader : readers) {
+                if (reader.advance()) {
+                    coda.add(reader);
+                }
+            }
+            while (!coda.isEmpty()) {
+                RunReader minimo = coda.poll();
+                out.writeInt(minimo.u);
+                out.writeInt(minimo.v);
+                out.writeDouble(minimo.w);
+                if (minimo.advance()) {
+                    coda.add(minimo);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /*
+     * Metodo privato: dimensione del buffer di ogni file temporaneo, al più
+     * MAX_IO_BUFFER e al più un quarto del budget, per cui nel budget stanno
+     * sempre almeno due file in lettura e uno in scrittura.
+     */
+    private int ioBufferSize() {
+        return (int) Math.min(MAX_IO_BUFFER, Math.max(RECORD_SIZE, memoryBudget / 4));
+    }
+
+    /*
+     * Ordina per peso crescente i primi n record delle tre array parallele
+     * tramite heapsort, così da non dover creare un oggetto per ogni arco.
+     */
+    private static void sortRun(int[] u, int[] v, double[] w, int n) {
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            sift(u, v, w, i, n);
+        }
+        for (int fine = n - 1; fine > 0; fine--) {
+            swap(u, v, w, 0, fine);
+            sift(u, v, w, 0, fine);
+        }
+    }
+
+    //Metodo privato: fa scendere il record i nello heap (di massimo) di dimensione n.
+    private static void sift(int[] u, int[] v, double[] w, int i, int n) {
+        while (2 * i + 1 < n) {
+            int figlio = 2 * i + 1;
+            if (figlio + 1 < n && w[figlio + 1] > w[figlio]) {
+                figlio++;
+            }
+            if (w[i] >= w[figlio]) {
+                return;
+            }
+            swap(u, v, w, i, figlio);
+            i = figlio;
+        }
+    }
+
+    //Metodo privato: scambia i record i e j.
+    private static void swap(int[] u, int[] v, double[] w, int i, int j) {
+        int tempU = u[i];
+        u[i] = u[j];
+        u[j] = tempU;
+        int tempV = v[i];
+        v[i] = v[j];
+        v[j] = tempV;
+        double tempW = w[i];
+        w[i] = w[j];
+        w[j] = tempW;
+    }
+
+    /*
+     * Classe interna statica che legge sequenzialmente una run ordinata da un
+     * file temporaneo, mantenendo in memoria solo il record corrente.
+     */
+    private static class RunReader implements Comparable<RunReader> {
+        private final DataInputStream in;
+        //Record rimanenti nel file.
+        private int rimanenti;
+        //Record corrente.
+        private int u;
+        private int v;
+        private double w;
+
+        private RunReader(File file, int buffer) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), buffer));
+            this.rimanenti = in.readInt();
+        }
+
+        //Legge il prossimo record, torna false se la run è terminata.
+        private boolean advance() throws IOException {
+            if (rimanenti == 0) {
+                return false;
+            }
+            rimanenti--;
+            u = in.readInt();
+            v = in.readInt();
+            w = in.readDouble();
+            return true;
+        }
+
+        private void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                //Il file viene comunque cancellato subito dopo.
+            }
+        }
+
+        @Override
+        public int compareTo(RunReader other) {
+            return Double.compare(w, other.w);
+        }
+    }
 }
@@ -0,0 +1,270 @@
+package it.unicam.cs.asdl2122.mp2;
+
+/**
+ * Indice per interrogare un albero (o una foresta) di copertura minimo già
+ * calcolato, dato come {@link MSPResult}: l'arco più pesante sul cammino
+ * nell'albero tra due nodi (collo di bottiglia) e se un nuovo arco (u, v, w)
+ * entrerebbe nell'albero di copertura minimo, senza ripetere Kruskal o Prim.
+ *
+ * L'indice usa il salto binario (binary lifting): per ogni nodo e per ogni j
+ * conserva l'antenato 2^j livelli più in alto e il peso massimo degli archi
+ * percorsi per arrivarci. La costruzione costa O(V log V) in tempo e spazio,
+ * ogni interrogazione O(log V) passando per il minimo antenato comune. Dopo
+ * la costruzione l'indice è immutabile e può essere interrogato da più thread.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class MSPQueryIndex<L> {
+
+    //Il risultato da cui è stato costruito l'indice.
+    private final MSPResult<L> msp;
+
+    //Numero di nodi e di livelli del salto binario.
+    private final int n;
+    private final int levels;
+
+    //Profondità di ogni nodo nel suo albero.
+    private final int[] depth;
+
+    //Radice dell'albero di ogni nodo, -1 per i nodi non raggiunti.
+    private final int[] tree;
+
+    /*
+     * Salto binario, livello per livello: up[j * n + i] è l'antenato 2^j
+     * livelli sopra i (la radice se l'albero è più basso), maxUp[j * n + i] il
+     * peso massimo degli archi percorsi (-infinito se nessuno).
+     */
+    private final int[] up;
+    private final double[] maxUp;
+
+    /**
+     * Costruisce l'indice.
+     *
+     * @param msp
+     *                l'albero (o la foresta) di copertura minimo
+     * @throws NullPointerException
+     *                                  se il risultato è nullo
+     */
+    public MSPQueryIndex(MSPResult<L> msp) {
+        //Controllo se il risultato è nullo.
+        if (msp == null) {
+            throw new NullPointerException("Il risultato è nullo.");
+        }
+        this.msp = msp;
+        this.n = msp.nodeCount();
+        this.depth = new int[n];
+        this.tree = new int[n];
+        //Visita in ampiezza di ogni albero dalla sua radice, per le profondità:
+        int[] coda = new int[n];
+        int profonditaMassima = 0;
+        for (int r = 0; r < n; r++) {
+            tree[r] = -1;
+        }
+        for (int r = 0; r < n; r++) {
+            if (msp.parentOf(r) >= 0 || !msp.isReached(r)) {
+                continue;
+            }
+            int testa = 0;
+            int[] fine = {0};
+            coda[fine[0]++] = r;
+            tree[r] = r;
+            while (testa < fine[0]) {
+                int x = coda[testa++];
+                profonditaMassima = Math.max(profonditaMassima, depth[x]);
+                msp.forEachTreeNeighbor(x, (y, peso) -> {
+                    if (msp.parentOf(y) == x) {
+                        depth[y] = depth[x] + 1;
+                        tree[y] = tree[x];
+                        coda[fine[0]++] = y;
+                    }
+                });
+            }
+        }
+        this.levels = Math.max(1, 32 - Integer.numberOfLeadingZeros(profonditaMassima));
+        this.up = new int[levels * n];
+        this.maxUp = new double[levels * n];
+        for (int i = 0; i < n; i++) {
+            int p = msp.parentOf(i);
+            up[i] = p >= 0 ? p : i;
+            maxUp[i] = p >= 0 ? msp.weightOf(i) : Double.NEGATIVE_INFINITY;
+        }
+        for (int j = 1; j < levels; j++) {
+            int livello = j * n;
+            int precedente = livello - n;
+            for (int i = 0; i < n; i++) {
+                int meta = up[precedente + i];
+                up[livello + i] = up[precedente + meta];
+                maxUp[livello + i] = Math.max(maxUp[precedente + i], maxUp[precedente + meta]);
+            }
+        }
+    }
+
+    /**
+     * @return il risultato da cui è stato costruito l'indice
+     */
+    public MSPResult<L> getResult() {
+        return msp;
+    }
+
+    /**
+     * @param i
+     *              l'indice di un nodo
+     * @return la profondità del nodo nel suo albero, 0 per le radici e per i
+     *         nodi non raggiunti
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public int depthOf(int i) {
+        checkIndex(i);
+        return depth[i];
+    }
+
+    /**
+     * @param u
+     *              l'indice di un nodo
+     * @param v
+     *              l'indice di un nodo
+     * @return true se u e v sono nello stesso albero
+     * @throws IndexOutOfBoundsException
+     *                                       se almeno uno dei due indici non è
+     *                                       valido
+     */
+    public boolean connected(int u, int v) {
+        checkIndex(u);
+        checkIndex(v);
+        return u == v || (tree[u] >= 0 && tree[u] == tree[v]);
+    }
+
+    /**
+     * Minimo antenato comune di due nodi dello stesso albero, in O(log V).
+     *
+     * @param u
+     *              l'indice di un nodo
+     * @param v
+     *              l'indice di un nodo
+     * @return l'indice del minimo antenato comune, -1 se i nodi non sono nello
+     *         stesso albero
+     * @throws IndexOutOfBoundsException
+     *                                       se almeno uno dei due indici non è
+     *                                       valido
+     */
+    public int lca(int u, int v) {
+        if (!connected(u, v)) {
+            return -1;
+        }
+        if (depth[u] < depth[v]) {
+            int temp = u;
+            u = v;
+            v = temp;
+        }
+        u = ancestor(u, depth[u] - depth[v]);
+        if (u == v) {
+            return u;
+        }
+        for (int j = levels - 1; j >= 0; j--) {
+            if (up[j * n + u] != up[j * n + v]) {
+                u = up[j * n + u];
+                v = up[j * n + v];
+            }
+        }
+        return up[u];
+    }
+
+    /**
+     * Peso dell'arco più pesante sul cammino nell'albero tra u e v, in
+     * O(log V). Per la proprietà del ciclo è anche il minimo, su tutti i
+     * cammini del grafo tra u e v, del peso massimo di un arco del cammino.
+     *
+     * @param u
+     *              l'indice di un nodo
+     * @param v
+     *              l'indice di un nodo
+     * @return il peso massimo, -infinito se u e v coincidono, +infinito se non
+     *         sono nello stesso albero
+     * @throws IndexOutOfBoundsException
+     *                                       se almeno uno dei due indici non è
+     *                                       valido
+     */
+    public double maxEdgeOnPath(int u, int v) {
+        if (!connected(u, v)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (u == v) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (depth[u] < depth[v]) {
+            int temp = u;
+            u = v;
+            v = temp;
+        }
+        double massimo = Double.NEGATIVE_INFINITY;
+        //Porto u alla profondità di v:
+        int salto = depth[u] - depth[v];
+        for (int j = 0; salto != 0; j++, salto >>>= 1) {
+            if ((salto & 1) != 0) {
+                massimo = Math.max(massimo, maxUp[j * n + u]);
+                u = up[j * n + u];
+            }
+        }
+        if (u == v) {
+            return massimo;
+        }
+        //Salgo insieme finché gli antenati sono diversi:
+        for (int j = levels - 1; j >= 0; j--) {
+            int livello = j * n;
+            if (up[livello + u] != up[livello + v]) {
+                massimo = Math.max(massimo, Math.max(maxUp[livello + u], maxUp[livello + v]));
+                u = up[livello + u];
+                v = up[livello + v];
+            }
+        }
+        return Math.max(massimo, Math.max(maxUp[u], maxUp[v]));
+    }
+
+    /**
+     * Dice se aggiungendo al grafo l'arco (u, v) con peso w l'albero di
+     * copertura minimo cambierebbe, in O(log V): succede se e solo se w è
+     * strettamente minore dell'arco più pesante sul cammino tra u e v, che
+     * verrebbe sostituito, o se u e v sono in alberi diversi della foresta. A
+     * parità di peso l'albero attuale resta minimo e l'arco non entra.
+     *
+     * @param u
+     *              l'indice di un nodo
+     * @param v
+     *              l'indice di un nodo
+     * @param w
+     *              il peso dell'arco
+     * @return true se l'arco entrerebbe nell'albero di copertura minimo
+     * @throws IndexOutOfBoundsException
+     *                                       se almeno uno dei due indici non è
+     *                                       valido
+     * @throws IllegalArgumentException
+     *                                       se il peso è negativo o NaN
+     */
+    public boolean wouldEnterMSP(int u, int v, double w) {
+        if (!(w >= 0)) {
+            throw new IllegalArgumentException("Il peso è negativo o non è un numero.");
+        }
+        return Double.compare(w, maxEdgeOnPath(u, v)) < 0;
+    }
+
+    //Metodo privato: antenato k livelli sopra i.
+    private int ancestor(int i, int k) {
+        for (int j = 0; k != 0; j++, k >>>= 1) {
+            if ((k & 1) != 0) {
+                i = up[j * n + i];
+            }
+        }
+        return i;
+    }
+
+    //Metodo privato: controllo dell'indice di un nodo.
+    private void checkIndex(int i) {
+        if (i < 0 || i > n - 1) {
+            throw new IndexOutOfBoundsException("L'indice passato non corrisponde a nessun nodo o è fuori dai limiti dell'intervallo.");
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+
+/**
+ * Risultato immutabile del calcolo di un albero (o di una foresta) di
+ * copertura minimo. L'albero è rappresentato con array primitivi indicizzati
+ * dagli indici dei nodi del grafo: per ogni nodo i, {@code parentOf(i)} è
+ * l'indice del padre nell'albero (-1 per le radici) e {@code weightOf(i)} il
+ * peso dell'arco che collega i al padre (0 per le radici). I nodi non
+ * raggiunti dal calcolo, ad esempio quelli di un'altra componente connessa
+ * rispetto alla sorgente di Prim, hanno padre -1 e peso infinito.
+ *
+ * Il risultato non fa riferimento allo stato dei nodi del grafo (previous,
+ * distanza, colore), per cui più risultati possono essere calcolati e letti in
+ * parallelo sullo stesso grafo.
+ *
+ * Il peso totale viene calcolato alla creazione. L'adiacenza dell'albero, per
+ * visitarlo, e la vista come insieme di archi, compatibile con il risultato di
+ * {@link KruskalMSP#computeMSP(Graph)}, vengono costruite solo alla prima
+ * richiesta.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class MSPResult<L> {
+
+    //Nodi del grafo, nella posizione i il nodo di indice i.
+    private final GraphNode<L>[] nodes;
+
+    //Padre di ogni nodo, -1 per le radici e per i nodi non raggiunti.
+    private final int[] parent;
+
+    //Peso dell'arco verso il padre, 0 per le radici, infinito per i non raggiunti.
+    private final double[] weight;
+
+    //Peso totale e numero di archi dell'albero (o della foresta).
+    private final double totalWeight;
+    private final int edgeCount;
+
+    /*
+     * Adiacenza dell'albero in forma compatta, costruita alla prima richiesta:
+     * i vicini del nodo i sono adjacency[start[i]] ... adjacency[start[i + 1] - 1].
+     */
+    private volatile int[] start;
+    private int[] adjacency;
+
+    //Vista come insieme di archi, costruita alla prima richiesta.
+    private volatile Set<GraphEdge<L>> edges;
+
+    /*
+     * Crea il risultato a partire dagli array calcolati dall'algoritmo. Gli
+     * array non vengono copiati: chi li passa non deve più modificarli.
+     */
+    MSPResult(GraphNode<L>[] nodes, int[] parent, double[] weight) {
+        this.nodes = nodes;
+        this.parent = parent;
+        this.weight = weight;
+        double totale = 0;
+        int archi = 0;
+        for (int i = 0; i < parent.length; i++) {
+            if (parent[i] >= 0) {
+                totale += weight[i];
+                archi++;
+            }
+        }
+        this.totalWeight = totale;
+        this.edgeCount = archi;
+    }
+
+    /**
+     * @return il numero di nodi del grafo su cui è stato calcolato il risultato
+     */
+    public int nodeCount() {
+        return parent.length;
+    }
+
+    /**
+     * @return il numero di archi dell'albero (o della foresta)
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @return la somma dei pesi degli archi dell'albero (o della foresta)
+     */
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * @param i
+     *              l'indice di un nodo
+     * @return il nodo di indice i
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public GraphNode<L> getNode(int i) {
+        return nodes[i];
+    }
+
+    /**
+     * @param i
+     *              l'indice di un nodo
+     * @return l'indice del padre del nodo i, -1 se i è una radice o non è
+     *         stato raggiunto
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public int parentOf(int i) {
+        return parent[i];
+    }
+
+    /**
+     * @param i
+     *              l'indice di un nodo
+     * @return il peso dell'arco che collega il nodo i al padre, 0 se i è una
+     *         radice, infinito se non è stato raggiunto
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public double weightOf(int i) {
+        return weight[i];
+    }
+
+    /**
+     * @param i
+     *              l'indice di un nodo
+     * @return true se il nodo i fa parte dell'albero (o della foresta)
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public boolean isReached(int i) {
+        return weight[i] != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return una copia dell'array dei padri
+     */
+    public int[] getParents() {
+        return Arrays.copyOf(parent, parent.length);
+    }
+
+    /**
+     * @return una copia dell'array dei pesi degli archi verso i padri
+     */
+    public double[] getWeights() {
+        return Arrays.copyOf(weight, weight.length);
+    }
+
+    /**
+     * @param i
+     *              l'indice di un nodo
+     * @return il numero di vicini del nodo i nell'albero (o nella foresta)
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public int treeDegreeOf(int i) {
+        int[] inizio = treeStart();
+        return inizio[i + 1] - inizio[i];
+    }
+
+    /**
+     * Visita i vicini del nodo i nell'albero (o nella foresta), padre compreso,
+     * passando all'azione l'indice del vicino e il peso dell'arco. Non alloca
+     * oggetti, per cui può essere usato per visitare l'intero albero.
+     *
+     * @param i
+     *                   l'indice di un nodo
+     * @param action
+     *                   l'azione da eseguire per ogni vicino
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public void forEachTreeNeighbor(int i, IntDoubleConsumer action) {
+        int[] inizio = treeStart();
+        for (int p = inizio[i]; p < inizio[i + 1]; p++) {
+            int v = adjacency[p];
+            //Se v è il padre di i il peso è quello di i, altrimenti v è un figlio.
+            action.accept(v, v == parent[i] ? weight[i] : weight[v]);
+        }
+    }
+
+    /**
+     * Restituisce gli archi dell'albero (o della foresta) come insieme, nella
+     * stessa forma di {@link KruskalMSP#computeMSP(Graph)}. Gli archi sono
+     * creati a partire dai nodi e dai pesi del risultato e sono uguali (equals)
+     * a quelli del grafo. L'insieme viene costruito alla prima chiamata e poi
+     * riusato.
+     *
+     * @return l'insieme (immodificabile) degli archi
+     */
+    public Set<GraphEdge<L>> asEdgeSet() {
+        Set<GraphEdge<L>> risultato = edges;
+        if (risultato == null) {
+            risultato = new EdgeSet();
+            edges = risultato;
+        }
+        return risultato;
+    }
+
+    /**
+     * Controlla se questo risultato e quello dato contengono gli stessi archi,
+     * indipendentemente da come sono stati radicati gli alberi. I due
+     * risultati devono essere stati calcolati sullo stesso grafo. Il confronto
+     * avviene sugli indici dei nodi, ordinando le coppie, senza creare archi né
+     * insiemi.
+     *
+     * @param other
+     *                  un altro risultato
+     * @return true se i due risultati hanno gli stessi archi
+     * @throws NullPointerException
+     *                                  se il risultato passato è nullo
+     */
+    public boolean sameEdges(MSPResult<L> other) {
+        //Controllo se il risultato passato è nullo.
+        if (other == null) {
+            throw new NullPointerException("Il risultato passato è nullo.");
+        }
+        if (other.nodeCount() != nodeCount() || other.edgeCount != edgeCount) {
+            return false;
+        }
+        long[] questi = sortedEdgeKeys();
+        long[] altri = other.sortedEdgeKeys();
+        return Arrays.equals(questi, altri);
+    }
+
+    /*
+     * Crea il risultato a partire da una foresta data come lista di archi
+     * (u[k], v[k], w[k]) con k < count: ogni albero viene radicato nel suo
+     * nodo di indice minimo con una visita in ampiezza. I nodi isolati sono
+     * radici.
+     */
+    static <L> MSPResult<L> fromEdges(GraphNode<L>[] nodes, int[] u, int[] v, double[] w, int count) {
+        int n = nodes.length;
+        //Adiacenza compatta della foresta, con il peso di ogni posizione:
+        int[] inizio = new int[n + 1];
+        for (int k = 0; k < count; k++) {
+            inizio[u[k] + 1]++;
+            inizio[v[k] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            inizio[i + 1] += inizio[i];
+        }
+        int[] posizione = Arrays.copyOf(inizio, n);
+        int[] vicini = new int[2 * count];
+        double[] pesi = new double[2 * count];
+        for (int k = 0; k < count; k++) {
+            vicini[posizione[u[k]]] = v[k];
+            pesi[posizione[u[k]]++] = w[k];
+            vicini[posizione[v[k]]] = u[k];
+            pesi[posizione[v[k]]++] = w[k];
+        }
+        int[] padri = new int[n];
+        double[] chiavi = new double[n];
+        boolean[] visitati = new boolean[n];
+        int[] coda = new int[n];
+        for (int radice = 0; radice < n; radice++) {
+            if (visitati[radice]) {
+                continue;
+            }
+            visitati[radice] = true;
+            padri[radice] = -1;
+            int testa = 0;
+            int fine = 0;
+            coda[fine++] = radice;
+            while (testa < fine) {
+                int x = coda[testa++];
+                for (int p = inizio[x]; p < inizio[x + 1]; p++) {
+                    int y = vicini[p];
+                    if (!visitati[y]) {
+                        visitati[y] = true;
+                        padri[y] = x;
+                        chiavi[y] = pesi[p];
+                        coda[fine++] = y;
+                    }
+                }
+            }
+        }
+        return new MSPResult<>(nodes, padri, chiavi);
+    }
+
+    //Metodo privato: archi come coppie (minimo, massimo) codificate in long e ordinate.
+    private long[] sortedEdgeKeys() {
+        long[] chiavi = new long[edgeCount];
+        int k = 0;
+        for (int i = 0; i < parent.length; i++) {
+            if (parent[i] >= 0) {
+                long a = Math.min(i, parent[i]);
+                long b = Math.max(i, parent[i]);
+                chiavi[k++] = a << 32 | b;
+            }
+        }
+        Arrays.sort(chiavi);
+        return chiavi;
+    }
+
+    //Metodo privato: adiacenza compatta dell'albero, costruita alla prima richiesta.
+    private int[] treeStart() {
+        int[] inizio = start;
+        if (inizio == null) {
+            int n = parent.length;
+            inizio = new int[n + 1];
+            for (int i = 0; i < n; i++) {
+                if (parent[i] >= 0) {
+                    inizio[i + 1]++;
+                    inizio[parent[i] + 1]++;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                inizio[i + 1] += inizio[i];
+            }
+            int[] posizione = Arrays.copyOf(inizio, n);
+            int[] vicini = new int[inizio[n]];
+            for (int i = 0; i < n; i++) {
+                if (parent[i] >= 0) {
+                    vicini[posizione[i]++] = parent[i];
+                    vicini[posizione[parent[i]]++] = i;
+                }
+            }
+            //adjacency è scritto prima di start, che è volatile.
+            adjacency = vicini;
+            start = inizio;
+        }
+        return inizio;
+    }
+
+    /*
+     * Vista immodificabile degli archi. La ricerca di un arco guarda i padri
+     * dei due estremi, cercando gli indici dei nodi nella tabella costruita
+     * alla prima ricerca.
+     */
+    private class EdgeSet extends AbstractSet<GraphEdge<L>> {
+
+        //Associazione nodo -> indice, costruita alla prima ricerca.
+        private volatile Map<GraphNode<L>, Integer> indici;
+
+        @Override
+        public int size() {
+            return edgeCount;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof GraphEdge)) {
+                return false;
+            }
+            GraphEdge<?> arco = (GraphEdge<?>) o;
+            if (arco.isDirected()) {
+                return false;
+            }
+            Map<GraphNode<L>, Integer> mappa = indici;
+            if (mappa == null) {
+                mappa = new HashMap<>(Math.max(16, (int) (nodes.length / 0.75f) + 1));
+                for (int i = 0; i < nodes.length; i++) {
+                    mappa.put(nodes[i], i);
+                }
+                indici = mappa;
+            }
+            Integer a = mappa.get(arco.getNode1());
+            Integer b = mappa.get(arco.getNode2());
+            if (a == null || b == null) {
+                return false;
+            }
+            return parent[a] == b || parent[b] == a;
+        }
+
+        @Override
+        public Iterator<GraphEdge<L>> iterator() {
+            return new Iterator<GraphEdge<L>>() {
+                //Prossimo nodo con un padre, parent.length se non ce ne sono altri.
+                private int prossimo = avanza(0);
+
+                private int avanza(int da) {
+                    while (da < parent.length && parent[da] < 0) {
+                        da++;
+                    }
+                    return da;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return prossimo < parent.length;
+                }
+
+                @Override
+                public GraphEdge<L> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException("Non ci sono altri archi.");
+                    }
+                    int i = prossimo;
+                    prossimo = avanza(i + 1);
+                    return new GraphEdge<>(nodes[parent[i]], nodes[i], false, weight[i]);
+                }
+            };
+        }
+    }
+}
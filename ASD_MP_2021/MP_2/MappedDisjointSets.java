@@ -0,0 +1,495 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Insiemi disgiunti con elementi indicizzati da long (0, 1, 2, ...) e
+ * conservati fuori dallo heap, in un file mappato in memoria: servono quando
+ * gli elementi sono troppi per {@link ForestDisjointSets}, che usa un oggetto
+ * e una voce di mappa per elemento. Ogni elemento occupa 8 byte nel file, con
+ * il parent (0 se l'elemento è una radice) e il rango; il file cresce a
+ * segmenti di 2^segmentBits elementi, ognuno mappato separatamente.
+ *
+ * Il file comincia con un'intestazione (magic, versione, dimensione dei
+ * segmenti, stato, numero di elementi e di insiemi), per cui può essere
+ * riaperto da un altro processo e il lavoro può riprendere da dove era
+ * arrivato. {@link #checkpoint()} scrive su disco tutti i segmenti e poi
+ * l'intestazione; {@link #close()} fa un checkpoint e segna il file come
+ * chiuso correttamente. Se il processo termina senza close, alla riapertura
+ * il file viene riportato a uno stato consistente: sono presenti tutti gli
+ * elementi e le unioni dell'ultimo checkpoint, più eventualmente alcune delle
+ * unioni successive; gli elementi creati dopo l'ultimo checkpoint vengono
+ * scartati.
+ *
+ * Per garantirlo, il sistema operativo può scrivere le pagine mappate in
+ * qualsiasi ordine, per cui la compressione del cammino (per dimezzamento) fa
+ * saltare a un nodo solo archi che non sono cambiati dall'ultimo checkpoint.
+ * Gli archi cambiati vengono segnati in una bitmap nello heap (1 bit per
+ * elemento, solo per i segmenti toccati), svuotata ad ogni checkpoint: tra un
+ * checkpoint e l'altro alcuni cammini restano più lunghi, ma grazie
+ * all'unione per rango non superano comunque log(n) archi. Conviene quindi
+ * fare checkpoint periodici anche quando non serve la persistenza.
+ *
+ * Le mappature vengono rilasciate dalla JVM quando l'oggetto non è più
+ * raggiungibile, anche dopo close. La classe non è thread-safe.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ */
+public class MappedDisjointSets implements Closeable {
+
+    //Formato dell'intestazione.
+    static final int MAGIC = 0x55464453;
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int OFFSET_SEGMENT_BITS = 8;
+    private static final int OFFSET_STATE = 12;
+    private static final int OFFSET_COUNT = 16;
+    private static final int OFFSET_SETS = 24;
+    private static final int OFFSET_CHECKPOINTS = 32;
+
+    //Stato del file: aperto (da recuperare se trovato alla riapertura) o chiuso correttamente.
+    private static final int STATE_OPEN = 0;
+    private static final int STATE_CLEAN = 1;
+
+    /**
+     * Dimensione dei segmenti di default: 2^24 elementi (128 MB).
+     */
+    public static final int DEFAULT_SEGMENT_BITS = 24;
+
+    /**
+     * Numero massimo di elementi.
+     */
+    public static final long MAX_ELEMENTS = 1L << 56;
+
+    //Il parent (+ 1) occupa i 57 bit bassi di una voce, il rango quelli alti.
+    private static final int RANK_SHIFT = 57;
+    private static final long PARENT_MASK = (1L << RANK_SHIFT) - 1;
+
+    //Il canale del file e l'intestazione mappata.
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+
+    //Dimensione dei segmenti: elementi (potenza di 2) e maschera dell'indice nel segmento.
+    private final int segmentBits;
+    private final long segmentMask;
+
+    //Segmenti mappati e, per ognuno, la bitmap degli archi cambiati dall'ultimo checkpoint.
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private long[][] changed = new long[0][];
+
+    //Numero di elementi e di insiemi.
+    private long count;
+    private long sets;
+
+    //Elementi presenti all'ultimo checkpoint.
+    private long checkpointCount;
+
+    //true se all'apertura il file non era stato chiuso correttamente.
+    private final boolean recovered;
+
+    //true dopo close.
+    private boolean closed;
+
+    /**
+     * Apre il file, creandolo se non esiste, con segmenti di dimensione
+     * {@link #DEFAULT_SEGMENT_BITS}.
+     *
+     * @param file
+     *                 il file
+     * @throws NullPointerException
+     *                                  se il file è nullo
+     * @throws IOException
+     *                                  se il file non può essere aperto o non
+     *                                  è nel formato atteso
+     */
+    public MappedDisjointSets(Path file) throws IOException {
+        this(file, DEFAULT_SEGMENT_BITS);
+    }
+
+    /**
+     * Apre il file, creandolo se non esiste. Se il file esiste già viene usata
+     * la dimensione dei segmenti scritta nell'intestazione.
+     *
+     * @param file
+     *                        il file
+     * @param segmentBits
+     *                        logaritmo in base 2 degli elementi per segmento,
+     *                        tra 10 e 27, usato se il file viene creato
+     * @throws NullPointerException
+     *                                      se il file è nullo
+     * @throws IllegalArgumentException
+     *                                      se segmentBits non è valido
+     * @throws IOException
+     *                                      se il file non può essere aperto o
+     *                                      non è nel formato atteso
+     */
+    public MappedDisjointSets(Path file, int segmentBits) throws IOException {
+        //Controllo se il file è nullo.
+        if (file == null) {
+            throw new NullPointerException("Il file è nullo.");
+        }
+        checkSegmentBits(segmentBits);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            boolean nuovo = channel.size() == 0;
+            if (!nuovo && channel.size() < HEADER_SIZE) {
+                throw new IOException("Il file non è nel formato atteso.");
+            }
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (nuovo) {
+                header.putInt(0, MAGIC);
+                header.putInt(4, VERSION);
+                header.putInt(OFFSET_SEGMENT_BITS, segmentBits);
+                header.putInt(OFFSET_STATE, STATE_CLEAN);
+            } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Il file non è nel formato atteso.");
+            }
+            this.segmentBits = header.getInt(OFFSET_SEGMENT_BITS);
+            if (this.segmentBits < 10 || this.segmentBits > 27) {
+                throw new IOException("Il file non è nel formato atteso.");
+            }
+            this.segmentMask = (1L << this.segmentBits) - 1;
+            this.count = header.getLong(OFFSET_COUNT);
+            this.sets = header.getLong(OFFSET_SETS);
+            if (count < 0 || count > MAX_ELEMENTS || sets < 0 || sets > count) {
+                throw new IOException("Il file non è nel formato atteso.");
+            }
+            //Mappo i segmenti già presenti nel file.
+            long segmentiNelFile = (channel.size() - HEADER_SIZE) >> (this.segmentBits + 3);
+            ensureSegments(Math.max(segmentiNelFile, segmentOf(count + segmentMask)));
+            this.recovered = header.getInt(OFFSET_STATE) != STATE_CLEAN;
+            if (recovered) {
+                recover();
+            }
+            this.checkpointCount = count;
+            //Da qui in poi, fino a close, il file risulta aperto.
+            header.putInt(OFFSET_STATE, STATE_OPEN);
+            header.force();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return true se all'apertura il file non era stato chiuso correttamente
+     *         ed è stato riportato all'ultimo checkpoint
+     */
+    public boolean wasRecovered() {
+        return recovered;
+    }
+
+    /**
+     * @return il numero di elementi
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * @return il numero di insiemi disgiunti
+     */
+    public long setCount() {
+        return sets;
+    }
+
+    /**
+     * Crea un nuovo elemento, in un insieme che contiene solo lui.
+     *
+     * @return l'indice del nuovo elemento
+     * @throws IllegalStateException
+     *                                   se è stato raggiunto il numero
+     *                                   massimo di elementi o il file è
+     *                                   chiuso
+     * @throws UncheckedIOException
+     *                                   se il file non può crescere
+     */
+    public long makeSet() {
+        return makeSets(1);
+    }
+
+    /**
+     * Crea n nuovi elementi, ognuno in un insieme che contiene solo lui, con
+     * indici consecutivi.
+     *
+     * @param n
+     *              il numero di elementi
+     * @return l'indice del primo nuovo elemento
+     * @throws IllegalArgumentException
+     *                                      se n è negativo
+     * @throws IllegalStateException
+     *                                      se verrebbe superato il numero
+     *                                      massimo di elementi o il file è
+     *                                      chiuso
+     * @throws UncheckedIOException
+     *                                      se il file non può crescere
+     */
+    public long makeSets(long n) {
+        checkOpen();
+        if (n < 0) {
+            throw new IllegalArgumentException("Il numero di elementi è negativo.");
+        }
+        if (n > MAX_ELEMENTS - count) {
+            throw new IllegalStateException("Raggiunto il numero massimo di elementi.");
+        }
+        try {
+            ensureSegments(segmentOf(count + n + segmentMask));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        //Le voci oltre count sono sempre a zero, cioè radici di rango zero.
+        long primo = count;
+        count += n;
+        sets += n;
+        return primo;
+    }
+
+    /**
+     * Restituisce il rappresentante dell'insieme che contiene l'elemento.
+     *
+     * @param e
+     *              l'elemento
+     * @return l'indice del rappresentante
+     * @throws IllegalArgumentException
+     *                                      se l'elemento non esiste
+     * @throws IllegalStateException
+     *                                      se il file è chiuso
+     */
+    public long findSet(long e) {
+        checkElement(e);
+        long x = e;
+        while (true) {
+            long p = parentOf(x);
+            if (p == x) {
+                return x;
+            }
+            long g = parentOf(p);
+            if (g == p) {
+                return p;
+            }
+            //Dimezzamento del cammino, solo se x -> p e p -> g sono archi dell'ultimo checkpoint.
+            if (p < checkpointCount && !isChanged(x) && !isChanged(p)) {
+                setParent(x, g);
+            }
+            x = g;
+        }
+    }
+
+    /**
+     * Unisce gli insiemi che contengono i due elementi, con l'euristica
+     * dell'unione per rango. A parità di rango il rappresentante dell'unione è
+     * quello dell'insieme di e2, come in {@link ForestDisjointSets}.
+     *
+     * @param e1
+     *               il primo elemento
+     * @param e2
+     *               il secondo elemento
+     * @return true se gli insiemi erano diversi e sono stati uniti
+     * @throws IllegalArgumentException
+     *                                      se almeno uno dei due elementi non
+     *                                      esiste
+     * @throws IllegalStateException
+     *                                      se il file è chiuso
+     */
+    public boolean union(long e1, long e2) {
+        long r1 = findSet(e1);
+        long r2 = findSet(e2);
+        if (r1 == r2) {
+            return false;
+        }
+        int rango1 = rankOf(r1);
+        int rango2 = rankOf(r2);
+        if (rango1 > rango2) {
+            setParent(r2, r1);
+        } else {
+            setParent(r1, r2);
+            if (rango1 == rango2) {
+                setRank(r2, rango2 + 1);
+            }
+        }
+        sets--;
+        return true;
+    }
+
+    /**
+     * @param e1
+     *               il primo elemento
+     * @param e2
+     *               il secondo elemento
+     * @return true se i due elementi sono nello stesso insieme
+     * @throws IllegalArgumentException
+     *                                      se almeno uno dei due elementi non
+     *                                      esiste
+     * @throws IllegalStateException
+     *                                      se il file è chiuso
+     */
+    public boolean sameSet(long e1, long e2) {
+        return findSet(e1) == findSet(e2);
+    }
+
+    /**
+     * Scrive su disco tutti i segmenti e poi l'intestazione con il numero di
+     * elementi e di insiemi: se il processo termina, alla riapertura si
+     * riparte almeno da questo stato.
+     *
+     * @throws IllegalStateException
+     *                                   se il file è chiuso
+     */
+    public void checkpoint() {
+        checkOpen();
+        for (MappedByteBuffer segmento : segments) {
+            segmento.force();
+        }
+        header.putLong(OFFSET_COUNT, count);
+        header.putLong(OFFSET_SETS, sets);
+        header.putLong(OFFSET_CHECKPOINTS, header.getLong(OFFSET_CHECKPOINTS) + 1);
+        header.force();
+        //Tutti gli archi sono ora su disco.
+        changed = new long[segments.size()][];
+        checkpointCount = count;
+    }
+
+    /**
+     * Fa un checkpoint, segna il file come chiuso correttamente e chiude il
+     * canale. Chiamate successive non fanno niente.
+     *
+     * @throws IOException
+     *                         se la chiusura del canale fallisce
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        checkpoint();
+        header.putInt(OFFSET_STATE, STATE_CLEAN);
+        header.force();
+        closed = true;
+        channel.close();
+    }
+
+    /*
+     * Riporta il file all'ultimo checkpoint: gli archi verso elementi creati
+     * dopo vengono tolti (le loro radici tornano radici), le voci oltre count
+     * vengono azzerate e il numero di insiemi viene ricontato.
+     */
+    private void recover() {
+        long radici = 0;
+        for (long i = 0; i < count; i++) {
+            long p = parentOf(i);
+            if (p >= count) {
+                setEntry(i, rankOf(i), i);
+                p = i;
+            }
+            if (p == i) {
+                radici++;
+            }
+        }
+        long capacita = (long) segments.size() << segmentBits;
+        for (long i = count; i < capacita; i++) {
+            if (entry(i) != 0) {
+                setEntry(i, 0, i);
+            }
+        }
+        sets = radici;
+        for (MappedByteBuffer segmento : segments) {
+            segmento.force();
+        }
+        header.putLong(OFFSET_SETS, sets);
+    }
+
+    //Metodo privato: mappa segmenti finché non sono almeno quelli richiesti.
+    private void ensureSegments(long richiesti) throws IOException {
+        long byteSegmento = 8L << segmentBits;
+        while (segments.size() < richiesti) {
+            long inizio = HEADER_SIZE + segments.size() * byteSegmento;
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, inizio, byteSegmento));
+        }
+        if (changed.length < segments.size()) {
+            changed = Arrays.copyOf(changed, segments.size());
+        }
+    }
+
+    //Metodo privato: segmento che contiene l'elemento.
+    private long segmentOf(long e) {
+        return e >>> segmentBits;
+    }
+
+    //Metodo privato: voce dell'elemento.
+    private long entry(long e) {
+        return segments.get((int) (e >>> segmentBits)).getLong((int) (e & segmentMask) << 3);
+    }
+
+    //Metodo privato: scrive la voce dell'elemento.
+    private void setEntry(long e, int rank, long parent) {
+        long valore = (long) rank << RANK_SHIFT | (parent == e ? 0 : parent + 1);
+        segments.get((int) (e >>> segmentBits)).putLong((int) (e & segmentMask) << 3, valore);
+    }
+
+    //Metodo privato: parent dell'elemento (se stesso se è una radice).
+    private long parentOf(long e) {
+        long p = entry(e) & PARENT_MASK;
+        return p == 0 ? e : p - 1;
+    }
+
+    //Metodo privato: rango dell'elemento.
+    private int rankOf(long e) {
+        return (int) (entry(e) >>> RANK_SHIFT);
+    }
+
+    //Metodo privato: cambia il parent dell'elemento e segna l'arco come cambiato.
+    private void setParent(long e, long parent) {
+        setEntry(e, rankOf(e), parent);
+        int s = (int) (e >>> segmentBits);
+        if (changed[s] == null) {
+            changed[s] = new long[(int) ((segmentMask >>> 6) + 1)];
+        }
+        int i = (int) (e & segmentMask);
+        changed[s][i >>> 6] |= 1L << i;
+    }
+
+    //Metodo privato: cambia il rango di una radice (l'arco non cambia).
+    private void setRank(long e, int rank) {
+        setEntry(e, rank, parentOf(e));
+    }
+
+    //Metodo privato: true se l'arco uscente dall'elemento è cambiato dall'ultimo checkpoint.
+    private boolean isChanged(long e) {
+        long[] bitmap = changed[(int) (e >>> segmentBits)];
+        int i = (int) (e & segmentMask);
+        return bitmap != null && (bitmap[i >>> 6] & 1L << i) != 0;
+    }
+
+    //Metodo privato: controllo dell'elemento.
+    private void checkElement(long e) {
+        checkOpen();
+        if (e < 0 || e >= count) {
+            throw new IllegalArgumentException("L'elemento passato non è presente.");
+        }
+    }
+
+    //Metodo privato: controllo che il file sia aperto.
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Il file è chiuso.");
+        }
+    }
+
+    //Metodo privato: controllo della dimensione dei segmenti.
+    private static void checkSegmentBits(int segmentBits) {
+        if (segmentBits < 10 || segmentBits > 27) {
+            throw new IllegalArgumentException("La dimensione dei segmenti non è valida.");
+        }
+    }
+}
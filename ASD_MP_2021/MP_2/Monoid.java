@@ -0,0 +1,101 @@
+package it.unicam.cs.asdl2122.mp2;
+
+/**
+ * Monoide usato da {@link AugmentedForestDisjointSets} per combinare i valori
+ * degli elementi di un insieme: un'operazione associativa con un elemento
+ * neutro. Poiché l'ordine in cui vengono uniti gli insiemi dipende dai ranghi,
+ * l'operazione deve essere anche commutativa.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <A>
+ *                il tipo dei valori
+ */
+public interface Monoid<A> {
+
+    /**
+     * @return l'elemento neutro dell'operazione
+     */
+    A identity();
+
+    /**
+     * Combina due valori.
+     *
+     * @param a
+     *              il primo valore
+     * @param b
+     *              il secondo valore
+     * @return il valore combinato
+     */
+    A combine(A a, A b);
+
+    /**
+     * @return la somma di interi, ad esempio per contare gli elementi
+     */
+    static Monoid<Integer> intSum() {
+        return new Monoid<Integer>() {
+            @Override
+            public Integer identity() {
+                return 0;
+            }
+
+            @Override
+            public Integer combine(Integer a, Integer b) {
+                return a + b;
+            }
+        };
+    }
+
+    /**
+     * @return la somma di reali, ad esempio per il peso totale
+     */
+    static Monoid<Double> doubleSum() {
+        return new Monoid<Double>() {
+            @Override
+            public Double identity() {
+                return 0.0;
+            }
+
+            @Override
+            public Double combine(Double a, Double b) {
+                return a + b;
+            }
+        };
+    }
+
+    /**
+     * @return il minimo di interi, con elemento neutro
+     *         {@link Integer#MAX_VALUE}
+     */
+    static Monoid<Integer> intMin() {
+        return new Monoid<Integer>() {
+            @Override
+            public Integer identity() {
+                return Integer.MAX_VALUE;
+            }
+
+            @Override
+            public Integer combine(Integer a, Integer b) {
+                return Math.min(a, b);
+            }
+        };
+    }
+
+    /**
+     * @return il massimo di interi, con elemento neutro
+     *         {@link Integer#MIN_VALUE}
+     */
+    static Monoid<Integer> intMax() {
+        return new Monoid<Integer>() {
+            @Override
+            public Integer identity() {
+                return Integer.MIN_VALUE;
+            }
+
+            @Override
+            public Integer combine(Integer a, Integer b) {
+                return Math.max(a, b);
+            }
+        };
+    }
+}
@@ -2,6 +2,8 @@ package it.unicam.cs.asdl2122.mp2;
 
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Classe singoletto che implementa l'algoritmo di Prim per trovare un Minimum
@@ -25,6 +27,9 @@ public class PrimMSP<L> {
     // Set di Nodi visitati.
     List<GraphNode<L>> nodesVisited;
 
+    //Soglia di divisione dei task della foresta: un blocco di componenti con più nodi viene diviso.
+    public static final int FOREST_GRAIN = 4096;
+
     // Classe interna:
     private class NodeComparator implements Comparator<GraphNode<L>> {
         //Metodo interno della classe:
@@ -120,6 +125,212 @@ public class PrimMSP<L> {
         }
     }
 
+    /**
+     * Variante dell'algoritmo di Prim che non modifica i nodi del grafo né lo
+     * stato di questo oggetto: tutto lo stato di lavoro (chiavi, padri, nodi
+     * visitati e coda con priorità indicizzata) è in array primitivi locali
+     * indicizzati dagli indici dei nodi e il risultato è un oggetto immutabile.
+     * Più chiamate, anche da sorgenti diverse, possono quindi essere eseguite
+     * in parallelo sullo stesso grafo, purché nessuno lo modifichi.
+     *
+     * Il costo è O((V + E) log V) invece di O(V^3) della versione che lavora
+     * sui nodi.
+     *
+     * @param g un grafo non orientato, pesato, con pesi non negativi
+     * @param s il nodo del grafo g sorgente, che sarà la radice dell'albero
+     * @return l'albero di copertura minimo della componente connessa di s; i
+     * nodi delle altre componenti risultano non raggiunti
+     * @throw NullPointerException se il grafo g o il nodo sorgente s sono nulli
+     * @throw IllegalArgumentException se il nodo sorgente s non esiste in g
+     * @throw IllegalArgumentException se il grafo g è orientato, non pesato o con
+     * pesi negativi
+     */
+    public MSPResult<L> computeMSPResult(Graph<L> g, GraphNode<L> s) {
+        //Controllo se il grafo o il nodo sorgente sono nulli:
+        if (g == null || s == null) {
+            throw new NullPointerException("Il grafo o il nodo sorgente sono nulli.");
+        }
+        //Controllo se il grafo contiene il nodo s:
+        if (g.getNode(s) == null) {
+            throw new IllegalArgumentException("Il nodo sorgente non esiste nel grafo.");
+        }
+        GraphIndex.checkWeighted(g);
+        GraphNode<L>[] nodi = GraphIndex.nodesByIndex(g);
+        int n = nodi.length;
+        int[] padri = new int[n];
+        double[] chiavi = new double[n];
+        boolean[] visitati = new boolean[n];
+        Arrays.fill(padri, -1);
+        Arrays.fill(chiavi, Double.POSITIVE_INFINITY);
+        IndexedMinHeap coda = new IndexedMinHeap(n);
+        int sorgente = g.getNodeIndexOf(s);
+        chiavi[sorgente] = 0;
+        coda.insertOrDecrease(sorgente, 0);
+        while (!coda.isEmpty()) {
+            //Estraggo il nodo più vicino all'albero e lo marco come visitato:
+            int u = coda.extractMin();
+            visitati[u] = true;
+            //Aggiorno le chiavi dei vicini non ancora visitati:
+            GraphIndex.forEachNeighbor(g, u, (v, peso) -> {
+                if (!visitati[v] && peso < chiavi[v]) {
+                    chiavi[v] = peso;
+                    padri[v] = u;
+                    coda.insertOrDecrease(v, peso);
+                }
+            });
+        }
+        return new MSPResult<>(nodi, padri, chiavi);
+    }
+
+    /**
+     * Calcola una foresta di copertura minima di un grafo non orientato e
+     * pesato, anche non connesso, usando il pool fork-join comune. Si veda
+     * {@link #computeMinimumSpanningForest(Graph, ForkJoinPool)}.
+     *
+     * @param g un grafo non orientato, pesato, con pesi non negativi
+     * @return la foresta di copertura minima, con un albero per ogni componente
+     * connessa
+     * @throw NullPointerException se il grafo g è nullo
+     * @throw IllegalArgumentException se il grafo g è orientato, non pesato o con
+     * pesi negativi
+     */
+    public MSPResult<L> computeMinimumSpanningForest(Graph<L> g) {
+        return computeMinimumSpanningForest(g, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calcola una foresta di copertura minima di un grafo non orientato e
+     * pesato, anche non connesso. Il grafo viene prima diviso nelle sue
+     * componenti connesse; poi l'algoritmo di Prim viene eseguito su ogni
+     * componente in modo indipendente, distribuendo le componenti tra i thread
+     * del pool fork-join dato. Un blocco di componenti con più di
+     * {@link #FOREST_GRAIN} nodi viene diviso a metà dei nodi, per cui ogni
+     * task calcola in sequenza componenti per al più FOREST_GRAIN nodi in
+     * totale, oppure una sola componente più grande. Le componenti piccole
+     * restano così raggruppate e anche un grafo con migliaia di componenti
+     * genera un numero contenuto di task.
+     *
+     * Come {@link #computeMSPResult(Graph, GraphNode)}, il calcolo non modifica
+     * né i nodi del grafo né lo stato di questo oggetto. La radice di ogni
+     * albero è il nodo di indice minimo della sua componente.
+     *
+     * @param g un grafo non orientato, pesato, con pesi non negativi
+     * @param pool il pool fork-join su cui eseguire i calcoli
+     * @return la foresta di copertura minima, con un albero per ogni componente
+     * connessa
+     * @throw NullPointerException se il grafo g o il pool sono nulli
+     * @throw IllegalArgumentException se il grafo g è orientato, non pesato o con
+     * pesi negativi
+     */
+    public MSPResult<L> computeMinimumSpanningForest(Graph<L> g, ForkJoinPool pool) {
+        //Controllo se il grafo o il pool sono nulli:
+        if (g == null || pool == null) {
+            throw new NullPointerException("Il grafo o il pool sono nulli.");
+        }
+        GraphIndex.checkWeighted(g);
+        GraphNode<L>[] nodi = GraphIndex.nodesByIndex(g);
+        int n = nodi.length;
+        int[] etichette = GraphIndex.componentLabels(g);
+        int componenti = etichette[n];
+        //Raggruppo i nodi per componente (counting sort) e calcolo l'indice locale di ognuno:
+        int[] inizio = new int[componenti + 1];
+        for (int i = 0; i < n; i++) {
+            inizio[etichette[i] + 1]++;
+        }
+        for (int c = 0; c < componenti; c++) {
+            inizio[c + 1] += inizio[c];
+        }
+        int[] membri = new int[n];
+        int[] locale = new int[n];
+        int[] posizione = Arrays.copyOf(inizio, componenti);
+        for (int i = 0; i < n; i++) {
+            int p = posizione[etichette[i]]++;
+            membri[p] = i;
+            locale[i] = p - inizio[etichette[i]];
+        }
+        //Ogni task scrive solo le posizioni dei nodi delle proprie componenti.
+        int[] padri = new int[n];
+        double[] chiavi = new double[n];
+        pool.invoke(new ForestTask<>(g, inizio, membri, locale, padri, chiavi, 0, componenti));
+        return new MSPResult<>(nodi, padri, chiavi);
+    }
+
+    /*
+     * Task fork-join che calcola gli alberi delle componenti [from, to). Se le
+     * componenti contengono più di FOREST_GRAIN nodi (e sono più di una) il
+     * task si divide in due a metà dei nodi, altrimenti le calcola in
+     * sequenza.
+     */
+    private static class ForestTask<L> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Graph<L> g;
+        private final int[] inizio;
+        private final int[] membri;
+        private final int[] locale;
+        private final int[] padri;
+        private final double[] chiavi;
+        private final int from;
+        private final int to;
+
+        private ForestTask(Graph<L> g, int[] inizio, int[] membri, int[] locale, int[] padri, double[] chiavi,
+                int from, int to) {
+            this.g = g;
+            this.inizio = inizio;
+            this.membri = membri;
+            this.locale = locale;
+            this.padri = padri;
+            this.chiavi = chiavi;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && inizio[to] - inizio[from] > FOREST_GRAIN) {
+                //Divido a metà dei nodi, non delle componenti:
+                int meta = (inizio[from] + inizio[to]) >>> 1;
+                int c = Arrays.binarySearch(inizio, from, to + 1, meta);
+                int split = c >= 0 ? c : -c - 1;
+                split = Math.max(from + 1, Math.min(to - 1, split));
+                invokeAll(new ForestTask<>(g, inizio, membri, locale, padri, chiavi, from, split),
+                        new ForestTask<>(g, inizio, membri, locale, padri, chiavi, split, to));
+                return;
+            }
+            for (int c = from; c < to; c++) {
+                primOnComponent(c);
+            }
+        }
+
+        //Prim sulla componente c, con array locali grandi quanto la componente.
+        private void primOnComponent(int c) {
+            int base = inizio[c];
+            int k = inizio[c + 1] - base;
+            boolean[] visitati = new boolean[k];
+            IndexedMinHeap coda = new IndexedMinHeap(k);
+            for (int p = 0; p < k; p++) {
+                padri[membri[base + p]] = -1;
+                chiavi[membri[base + p]] = Double.POSITIVE_INFINITY;
+            }
+            //La radice è il primo nodo della componente (quello di indice minimo).
+            chiavi[membri[base]] = 0;
+            coda.insertOrDecrease(0, 0);
+            while (!coda.isEmpty()) {
+                int uLocale = coda.extractMin();
+                visitati[uLocale] = true;
+                int u = membri[base + uLocale];
+                GraphIndex.forEachNeighbor(g, u, (v, peso) -> {
+                    int vLocale = locale[v];
+                    if (!visitati[vLocale] && peso < chiavi[v]) {
+                        chiavi[v] = peso;
+                        padri[v] = u;
+                        coda.insertOrDecrease(vLocale, peso);
+                    }
+                });
+            }
+        }
+    }
+
     //Metodo privato:
     private void updateQueue(Graph<L> g) {
         //Scorro i nodi rimasti nella coda per aggiornare i relativi pesi minimi:
@@ -0,0 +1,463 @@
+package it.unicam.cs.asdl2122.mp2;
+
+import java.util.Arrays;
+
+
+/**
+ * Motore per il calcolo di cammini minimi su un
+ * {@link AdjacencyMatrixUndirectedGraph} pesato con pesi non negativi. Offre:
+ * <ul>
+ * <li>Dijkstra a sorgente singola ({@link #computeFrom(int)}), con lettura di
+ * distanze e cammini verso ogni nodo;</li>
+ * <li>Dijkstra punto-punto che termina appena la destinazione viene estratta
+ * dalla coda ({@link #distance(int, int)});</li>
+ * <li>Dijkstra bidirezionale ({@link #bidirectionalDistance(int, int)});</li>
+ * <li>A* con euristica fornita dal chiamante
+ * ({@link #aStarDistance(int, int, Heuristic)}).</li>
+ * </ul>
+ *
+ * Tutto lo stato di lavoro (distanze, predecessori e code con priorità
+ * indicizzate) è in array primitivi allocati una volta sola e riusati da ogni
+ * interrogazione. Invece di riazzerare gli array, ogni interrogazione usa una
+ * nuova epoca: un valore è valido solo se il suo timbro è uguale all'epoca
+ * corrente, per cui l'inizializzazione costa O(1) e il costo di una
+ * interrogazione dipende solo dalla parte di grafo effettivamente visitata.
+ * Gli archi vengono visitati con un cursore del grafo, senza allocazioni.
+ *
+ * Se il grafo viene modificato il motore se ne accorge dalla sua versione e,
+ * alla prima interrogazione successiva, ridimensiona gli array e ricontrolla i
+ * pesi. Il motore non è thread-safe: ogni thread deve usare una propria
+ * istanza, anche sullo stesso grafo.
+ *
+ * @author Alessio Giacchè - DiscoHub12 in GitHub. (implementing)
+ *
+ * @param <L>
+ *                tipo delle etichette dei nodi del grafo
+ */
+public class ShortestPathEngine<L> {
+
+    /**
+     * Euristica per A*: stima dal basso della distanza tra un nodo e la
+     * destinazione. Perché A* restituisca il cammino minimo l'euristica deve
+     * essere ammissibile, cioè non deve mai sovrastimare la distanza reale.
+     */
+    @FunctionalInterface
+    public interface Heuristic {
+
+        /**
+         * @param node
+         *                   l'indice del nodo corrente
+         * @param target
+         *                   l'indice della destinazione
+         * @return una stima non negativa, non superiore alla distanza reale,
+         *         della distanza tra node e target
+         */
+        double estimate(int node, int target);
+    }
+
+    //Il grafo su cui lavora il motore.
+    private final AdjacencyMatrixUndirectedGraph<L> g;
+
+    //Cursore riusabile sugli archi del grafo.
+    private final AdjacencyMatrixUndirectedGraph<L>.EdgeCursor cursor;
+
+    //Versione del grafo per cui sono validi gli array, -1 se non ancora inizializzati.
+    private long version = -1;
+
+    //Epoca corrente: un valore è valido se il suo timbro è uguale all'epoca.
+    private int epoch;
+
+    //Stato della ricerca in avanti (dalla sorgente).
+    private double[] dist;
+    private int[] prev;
+    private int[] stamp;
+    private IndexedMinHeap heap;
+
+    //Stato della ricerca all'indietro (dalla destinazione), usato dal bidirezionale.
+    private double[] distBack;
+    private int[] prevBack;
+    private int[] stampBack;
+    private IndexedMinHeap heapBack;
+
+    //Sorgente dell'ultimo computeFrom, -1 se non valido.
+    private int source = -1;
+    private long sourceVersion = -1;
+
+    //Cammino dell'ultima interrogazione punto-punto, null se non esiste.
+    private int[] lastPath;
+
+    /**
+     * Crea un motore per il grafo dato.
+     *
+     * @param g
+     *              il grafo, non orientato, pesato e con pesi non negativi
+     * @throws NullPointerException
+     *                                  se il grafo è nullo
+     */
+    public ShortestPathEngine(AdjacencyMatrixUndirectedGraph<L> g) {
+        //Controllo se il grafo passato è nullo.
+        if (g == null) {
+            throw new NullPointerException("Il grafo è null.");
+        }
+        this.g = g;
+        this.cursor = g.newEdgeCursor();
+    }
+
+    /**
+     * Calcola con l'algoritmo di Dijkstra le distanze minime dalla sorgente a
+     * tutti i nodi. I risultati si leggono poi con {@link #distanceTo(int)} e
+     * {@link #pathTo(int)}, fino alla prossima interrogazione.
+     *
+     * @param source
+     *                   l'indice del nodo sorgente
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non corrisponde a
+     *                                       nessun nodo
+     * @throws IllegalArgumentException
+     *                                       se il grafo non è pesato o ha pesi
+     *                                       negativi
+     */
+    public void computeFrom(int source) {
+        prepare(source, source);
+        dijkstra(source, -1, null);
+        this.source = source;
+        this.sourceVersion = version;
+    }
+
+    /**
+     * Come {@link #computeFrom(int)}, con la sorgente indicata dal nodo.
+     *
+     * @param source
+     *                   il nodo sorgente
+     * @throws NullPointerException
+     *                                      se il nodo è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo non esiste nel grafo, o
+     *                                      se il grafo non è pesato o ha pesi
+     *                                      negativi
+     */
+    public void computeFrom(GraphNode<L> source) {
+        computeFrom(g.getNodeIndexOf(source));
+    }
+
+    /**
+     * @param target
+     *                   l'indice di un nodo
+     * @return la distanza minima dalla sorgente dell'ultimo
+     *         {@link #computeFrom(int)} al nodo dato, infinito se il nodo non è
+     *         raggiungibile
+     * @throws IllegalStateException
+     *                                       se non è stato chiamato
+     *                                       computeFrom dopo l'ultima
+     *                                       interrogazione o modifica del grafo
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public double distanceTo(int target) {
+        checkSingleSource(target);
+        return distanceOf(target);
+    }
+
+    /**
+     * @param target
+     *                   l'indice di un nodo
+     * @return gli indici dei nodi del cammino minimo dalla sorgente dell'ultimo
+     *         {@link #computeFrom(int)} al nodo dato, estremi compresi; null se
+     *         il nodo non è raggiungibile
+     * @throws IllegalStateException
+     *                                       se non è stato chiamato
+     *                                       computeFrom dopo l'ultima
+     *                                       interrogazione o modifica del grafo
+     * @throws IndexOutOfBoundsException
+     *                                       se l'indice non è valido
+     */
+    public int[] pathTo(int target) {
+        checkSingleSource(target);
+        return stamp[target] == epoch ? forwardPath(target) : null;
+    }
+
+    /**
+     * Calcola la distanza minima tra due nodi con l'algoritmo di Dijkstra,
+     * interrompendo la ricerca appena la destinazione viene estratta dalla
+     * coda. Il cammino trovato si legge con {@link #lastPath()}.
+     *
+     * @param s
+     *              l'indice della sorgente
+     * @param t
+     *              l'indice della destinazione
+     * @return la distanza minima tra s e t, infinito se t non è raggiungibile
+     * @throws IndexOutOfBoundsException
+     *                                       se almeno uno dei due indici non
+     *                                       corrisponde a nessun nodo
+     * @throws IllegalArgumentException
+     *                                       se il grafo non è pesato o ha pesi
+     *                                       negativi
+     */
+    public double distance(int s, int t) {
+        prepare(s, t);
+        dijkstra(s, t, null);
+        return finishForward(t);
+    }
+
+    /**
+     * Come {@link #distance(int, int)}, con sorgente e destinazione indicate
+     * dai nodi.
+     *
+     * @param s
+     *              il nodo sorgente
+     * @param t
+     *              il nodo destinazione
+     * @return la distanza minima tra s e t, infinito se t non è raggiungibile
+     * @throws NullPointerException
+     *                                      se almeno uno dei due nodi è nullo
+     * @throws IllegalArgumentException
+     *                                      se almeno uno dei due nodi non
+     *                                      esiste nel grafo, o se il grafo non
+     *                                      è pesato o ha pesi negativi
+     */
+    public double distance(GraphNode<L> s, GraphNode<L> t) {
+        return distance(g.getNodeIndexOf(s), g.getNodeIndexOf(t));
+    }
+
+    /**
+     * Calcola la distanza minima tra due nodi con l'algoritmo di Dijkstra
+     * bidirezionale: una ricerca parte dalla sorgente e una dalla
+     * destinazione, avanzando ogni volta quella con la chiave minima più
+     * piccola, e il calcolo termina quando la somma delle due chiavi minime
+     * raggiunge il miglior cammino trovato. Il cammino si legge con
+     * {@link #lastPath()}.
+     *
+     * @param s
+     *              l'indice della sorgente
+     * @param t
+     *              l'indice della destinazione
+     * @return la distanza minima tra s e t, infinito se t non è raggiungibile
+     * @throws IndexOutOfBoundsException
+     *                                       se almeno uno dei due indici non
+     *                                       corrisponde a nessun nodo
+     * @throws IllegalArgumentException
+     *                                       se il grafo non è pesato o ha pesi
+     *                                       negativi
+     */
+    public double bidirectionalDistance(int s, int t) {
+        prepare(s, t);
+        if (s == t) {
+            dist[s] = 0;
+            stamp[s] = epoch;
+            prev[s] = -1;
+            lastPath = new int[] {s};
+            return 0;
+        }
+        set(dist, prev, stamp, s, 0, -1);
+        set(distBack, prevBack, stampBack, t, 0, -1);
+        heap.insertOrDecrease(s, 0);
+        heapBack.insertOrDecrease(t, 0);
+        double migliore = Double.POSITIVE_INFINITY;
+        int incontro = -1;
+        while (!heap.isEmpty() && !heapBack.isEmpty()) {
+            //Criterio di arresto: nessun cammino migliore può ancora essere trovato.
+            if (heap.minKey() + heapBack.minKey() >= migliore) {
+                break;
+            }
+            boolean avanti = heap.minKey() <= heapBack.minKey();
+            double[] d = avanti ? dist : distBack;
+            int[] p = avanti ? prev : prevBack;
+            int[] st = avanti ? stamp : stampBack;
+            double[] dAltra = avanti ? distBack : dist;
+            int[] stAltra = avanti ? stampBack : stamp;
+            IndexedMinHeap coda = avanti ? heap : heapBack;
+            int u = coda.extractMin();
+            double du = d[u];
+            cursor.reset(u);
+            while (cursor.next()) {
+                int v = cursor.target();
+                double nuova = du + cursor.weight();
+                if (st[v] != epoch || nuova < d[v]) {
+                    set(d, p, st, v, nuova, u);
+                    coda.insertOrDecrease(v, nuova);
+                }
+                //Se v è stato raggiunto anche dall'altra ricerca aggiorno il migliore:
+                if (stAltra[v] == epoch && d[v] + dAltra[v] < migliore) {
+                    migliore = d[v] + dAltra[v];
+                    incontro = v;
+                }
+            }
+        }
+        heap.clear();
+        heapBack.clear();
+        if (incontro < 0) {
+            lastPath = null;
+            return Double.POSITIVE_INFINITY;
+        }
+        //Cammino: dalla sorgente al punto di incontro e poi fino alla destinazione.
+        int[] primo = forwardPath(incontro);
+        int lunghezza = primo.length;
+        for (int v = prevBack[incontro]; v >= 0; v = prevBack[v]) {
+            lunghezza++;
+        }
+        int[] cammino = Arrays.copyOf(primo, lunghezza);
+        int k = primo.length;
+        for (int v = prevBack[incontro]; v >= 0; v = prevBack[v]) {
+            cammino[k++] = v;
+        }
+        lastPath = cammino;
+        return migliore;
+    }
+
+    /**
+     * Calcola la distanza minima tra due nodi con l'algoritmo A*: la coda è
+     * ordinata per distanza dalla sorgente più la stima dell'euristica, per cui
+     * vengono visitati per primi i nodi che sembrano più vicini alla
+     * destinazione. Se l'euristica è ammissibile il risultato è la distanza
+     * minima; i nodi già estratti vengono riaperti se si trova per loro una
+     * distanza migliore, per cui non è richiesta la consistenza. Con
+     * l'euristica nulla A* coincide con {@link #distance(int, int)}. Il
+     * cammino si legge con {@link #lastPath()}.
+     *
+     * @param s
+     *                      l'indice della sorgente
+     * @param t
+     *                      l'indice della destinazione
+     * @param heuristic
+     *                      l'euristica
+     * @return la distanza minima tra s e t, infinito se t non è raggiungibile
+     * @throws NullPointerException
+     *                                       se l'euristica è nulla
+     * @throws IndexOutOfBoundsException
+     *                                       se almeno uno dei due indici non
+     *                                       corrisponde a nessun nodo
+     * @throws IllegalArgumentException
+     *                                       se il grafo non è pesato o ha pesi
+     *                                       negativi
+     */
+    public double aStarDistance(int s, int t, Heuristic heuristic) {
+        //Controllo se l'euristica è nulla.
+        if (heuristic == null) {
+            throw new NullPointerException("L'euristica è nulla.");
+        }
+        prepare(s, t);
+        dijkstra(s, t, heuristic);
+        return finishForward(t);
+    }
+
+    /**
+     * @return gli indici dei nodi del cammino trovato dall'ultima
+     *         interrogazione punto-punto, estremi compresi; null se la
+     *         destinazione non era raggiungibile o se non è stata fatta
+     *         nessuna interrogazione punto-punto
+     */
+    public int[] lastPath() {
+        return lastPath == null ? null : lastPath.clone();
+    }
+
+    /*
+     * Ricerca in avanti dalla sorgente s. Se t >= 0 si interrompe quando t
+     * viene estratto; se l'euristica non è nulla la chiave di un nodo è la sua
+     * distanza più la stima verso t (A*).
+     */
+    private void dijkstra(int s, int t, Heuristic heuristic) {
+        set(dist, prev, stamp, s, 0, -1);
+        heap.insertOrDecrease(s, heuristic == null ? 0 : heuristic.estimate(s, t));
+        while (!heap.isEmpty()) {
+            int u = heap.extractMin();
+            if (u == t) {
+                break;
+            }
+            double du = dist[u];
+            cursor.reset(u);
+            while (cursor.next()) {
+                int v = cursor.target();
+                double nuova = du + cursor.weight();
+                if (stamp[v] != epoch || nuova < dist[v]) {
+                    set(dist, prev, stamp, v, nuova, u);
+                    heap.insertOrDecrease(v, heuristic == null ? nuova : nuova + heuristic.estimate(v, t));
+                }
+            }
+        }
+        heap.clear();
+    }
+
+    //Metodo privato: salva il risultato di una interrogazione punto-punto.
+    private double finishForward(int t) {
+        if (stamp[t] != epoch) {
+            lastPath = null;
+            return Double.POSITIVE_INFINITY;
+        }
+        lastPath = forwardPath(t);
+        return dist[t];
+    }
+
+    //Metodo privato: cammino dalla sorgente a v seguendo i predecessori.
+    private int[] forwardPath(int v) {
+        int lunghezza = 0;
+        for (int u = v; u >= 0; u = prev[u]) {
+            lunghezza++;
+        }
+        int[] cammino = new int[lunghezza];
+        for (int u = v; u >= 0; u = prev[u]) {
+            cammino[--lunghezza] = u;
+        }
+        return cammino;
+    }
+
+    //Metodo privato: distanza valida nell'epoca corrente, infinito altrimenti.
+    private double distanceOf(int v) {
+        return stamp[v] == epoch ? dist[v] : Double.POSITIVE_INFINITY;
+    }
+
+    //Metodo privato: assegna distanza e predecessore timbrandoli con l'epoca corrente.
+    private void set(double[] d, int[] p, int[] st, int v, double distanza, int padre) {
+        d[v] = distanza;
+        p[v] = padre;
+        st[v] = epoch;
+    }
+
+    /*
+     * Prepara una nuova interrogazione: se il grafo è cambiato ridimensiona gli
+     * array e ricontrolla i pesi, controlla gli indici e passa a una nuova
+     * epoca.
+     */
+    private void prepare(int s, int t) {
+        long corrente = g.getVersion();
+        if (corrente != version) {
+            GraphIndex.checkWeighted(g);
+            int n = g.nodeCount();
+            if (dist == null || dist.length != n) {
+                dist = new double[n];
+                prev = new int[n];
+                stamp = new int[n];
+                heap = new IndexedMinHeap(n);
+                distBack = new double[n];
+                prevBack = new int[n];
+                stampBack = new int[n];
+                heapBack = new IndexedMinHeap(n);
+                epoch = 0;
+            }
+            version = corrente;
+        }
+        checkIndex(s);
+        checkIndex(t);
+        //Nuova epoca; se il contatore ricomincia azzero i timbri.
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            Arrays.fill(stampBack, 0);
+            epoch = 1;
+        }
+        source = -1;
+    }
+
+    //Metodo privato: controlli per la lettura dei risultati di computeFrom.
+    private void checkSingleSource(int target) {
+        if (source < 0 || sourceVersion != g.getVersion()) {
+            throw new IllegalStateException("Bisogna prima chiamare computeFrom sul grafo corrente.");
+        }
+        checkIndex(target);
+    }
+
+    //Metodo privato: controllo dell'indice di un nodo.
+    private void checkIndex(int i) {
+        if (i < 0 || i > dist.length - 1) {
+            throw new IndexOutOfBoundsException("L'indice passato non corrisponde a nessun nodo o è fuori dai limiti dell'intervallo.");
+        }
+    }
+}
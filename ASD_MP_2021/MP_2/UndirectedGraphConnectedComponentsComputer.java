@@ -1,5 +1,6 @@
 package it.unicam.cs.asdl2122.mp2;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -73,4 +74,33 @@ public class UndirectedGraphConnectedComponentsComputer<L> {
         }
         return componenti;
     }
+
+    /**
+     * Calcola le componenti connesse di un grafo non orientato in forma
+     * compatta, con una visita in ampiezza sugli indici dei nodi invece che con
+     * gli insiemi disgiunti. Il risultato risponde in tempo costante alle
+     * domande di connessione e costruisce gli insiemi di nodi solo se richiesti.
+     *
+     * @param g
+     *              un grafo non orientato
+     * @return le componenti connesse del grafo
+     * @throws NullPointerException
+     *                                      se il grafo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato è orientato
+     */
+    public ConnectedComponents<L> computeComponentLabels(Graph<L> g) {
+        //Controllo se il grafo passato è nullo.
+        if (g == null) {
+            throw new NullPointerException("Il grafo passato è nullo");
+        }
+        //Controllo se il grafo passato è orientato.
+        if (g.isDirected()) {
+            throw new IllegalArgumentException("Il grafo passato è orientato");
+        }
+        int n = g.nodeCount();
+        int[] etichette = GraphIndex.componentLabels(g);
+        //L'ultima posizione contiene il numero di componenti.
+        return new ConnectedComponents<>(GraphIndex.nodesByIndex(g), Arrays.copyOf(etichette, n), etichette[n]);
+    }
 }